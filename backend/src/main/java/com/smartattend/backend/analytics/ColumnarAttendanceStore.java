@@ -0,0 +1,326 @@
+package com.smartattend.backend.analytics;
+
+import com.smartattend.backend.attendance.AttendanceBitmapStore;
+import com.smartattend.backend.attendance.AttendanceChangedEvent;
+import com.smartattend.backend.attendance.DateRange;
+import com.smartattend.backend.attendance.MarkChange;
+import com.smartattend.backend.attendance.MarkCount;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@ConditionalOnProperty(name = "smartattend.analytics.columnar", havingValue = "true")
+public class ColumnarAttendanceStore {
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final AttendanceBitmapStore bitmapStore;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object pendingLock = new Object();
+    private final List<AttendanceChangedEvent> pending = new ArrayList<>();
+    private boolean loaded;
+
+    private final Map<Long, Integer> studentIndex = new HashMap<>();
+    private final Map<Long, Integer> classIndex = new HashMap<>();
+    private int[] rowSlots = new int[INITIAL_CAPACITY * 2];
+    private long[] studentIds = new long[1024];
+    private long[] classIds = new long[64];
+
+    private int[] students = new int[INITIAL_CAPACITY];
+    private int[] classes = new int[INITIAL_CAPACITY];
+    private int[] days = new int[INITIAL_CAPACITY];
+    private long[] present = new long[INITIAL_CAPACITY >>> 6];
+    private long[] live = new long[INITIAL_CAPACITY >>> 6];
+    private int size;
+
+    public ColumnarAttendanceStore(DataSource dataSource, AttendanceBitmapStore bitmapStore) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.bitmapStore = bitmapStore;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            if (bitmapStore.isEnabled()) {
+                bitmapStore.forEachMark(mark -> put(mark.studentId(), mark.classId(), mark.date(), mark.present()));
+            } else {
+                streamingJdbcTemplate.query(
+                    "SELECT student_id, class_id, date, is_present FROM attendance",
+                    rs -> {
+                        put(
+                            rs.getLong("student_id"),
+                            rs.getLong("class_id"),
+                            rs.getDate("date").toLocalDate(),
+                            rs.getBoolean("is_present")
+                        );
+                    }
+                );
+            }
+            synchronized (pendingLock) {
+                pending.forEach(this::apply);
+                pending.clear();
+                loaded = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        synchronized (pendingLock) {
+            if (!loaded) {
+                pending.add(event);
+                return;
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        synchronized (pendingLock) {
+            return loaded;
+        }
+    }
+
+    public MarkCount count(DateRange range) {
+        lock.readLock().lock();
+        try {
+            long[] totals = aggregate(range, 1, row -> 0);
+            return new MarkCount(totals[0], totals[1]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<Long, MarkCount> countByClass(DateRange range) {
+        lock.readLock().lock();
+        try {
+            int[] rowClasses = classes;
+            return toCounts(aggregate(range, classIndex.size(), row -> rowClasses[row]), classIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<Long, MarkCount> countByStudent(Map<Long, Long> currentClasses, DateRange range) {
+        lock.readLock().lock();
+        try {
+            int[] wantedClass = new int[studentIndex.size()];
+            Arrays.fill(wantedClass, -1);
+            currentClasses.forEach((studentId, classId) -> {
+                Integer student = studentIndex.get(studentId);
+                Integer clazz = classIndex.get(classId);
+                if (student != null && clazz != null) {
+                    wantedClass[student] = clazz;
+                }
+            });
+            int[] rowStudents = students;
+            int[] rowClasses = classes;
+            long[] totals = aggregate(range, wantedClass.length, row -> {
+                int student = rowStudents[row];
+                return wantedClass[student] == rowClasses[row] ? student : -1;
+            });
+            return toCounts(totals, studentIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] aggregate(DateRange range, int groups, RowGroup group) {
+        int from = (int) range.from().toEpochDay();
+        int to = (int) range.to().toEpochDay();
+        int rows = size;
+        int chunks = Math.max(1, (rows + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        IntStream chunkStream = IntStream.range(0, chunks);
+        if (chunks > 1) {
+            chunkStream = chunkStream.parallel();
+        }
+        return chunkStream
+            .mapToObj(chunk -> scan(chunk * CHUNK_SIZE, Math.min(rows, (chunk + 1) * CHUNK_SIZE), from, to, groups, group))
+            .reduce((left, right) -> {
+                for (int i = 0; i < left.length; i++) {
+                    left[i] += right[i];
+                }
+                return left;
+            })
+            .orElseGet(() -> new long[groups * 2]);
+    }
+
+    private long[] scan(int start, int end, int from, int to, int groups, RowGroup group) {
+        long[] totals = new long[groups * 2];
+        int[] rowDays = days;
+        long[] rowLive = live;
+        long[] rowPresent = present;
+        for (int row = start; row < end; row++) {
+            int day = rowDays[row];
+            if (day < from || day > to || (rowLive[row >>> 6] & (1L << row)) == 0) {
+                continue;
+            }
+            int target = group.of(row);
+            if (target < 0) {
+                continue;
+            }
+            totals[target * 2 + 1]++;
+            if ((rowPresent[row >>> 6] & (1L << row)) != 0) {
+                totals[target * 2]++;
+            }
+        }
+        return totals;
+    }
+
+    private static Map<Long, MarkCount> toCounts(long[] totals, long[] ids) {
+        Map<Long, MarkCount> counts = new HashMap<>();
+        for (int index = 0; index < totals.length / 2; index++) {
+            if (totals[index * 2 + 1] > 0) {
+                counts.put(ids[index], new MarkCount(totals[index * 2], totals[index * 2 + 1]));
+            }
+        }
+        return counts;
+    }
+
+    private void apply(AttendanceChangedEvent event) {
+        for (MarkChange change : event.changes()) {
+            if (change.current() == null) {
+                remove(change.studentId(), change.classId(), change.date());
+            } else {
+                put(change.studentId(), change.classId(), change.date(), change.current());
+            }
+        }
+    }
+
+    private void put(Long studentId, Long classId, LocalDate date, boolean isPresent) {
+        int student = indexOfStudent(studentId);
+        int clazz = indexOfClass(classId);
+        int day = (int) date.toEpochDay();
+        int slot = findSlot(student, clazz, day);
+        int row = rowSlots[slot] - 1;
+        if (row < 0) {
+            row = append(student, clazz, day);
+            rowSlots[slot] = row + 1;
+            if (size * 2 > rowSlots.length) {
+                rehash(rowSlots.length * 2);
+            }
+        }
+        setBit(live, row, true);
+        setBit(present, row, isPresent);
+    }
+
+    private void remove(Long studentId, Long classId, LocalDate date) {
+        Integer student = studentIndex.get(studentId);
+        Integer clazz = classIndex.get(classId);
+        if (student == null || clazz == null) {
+            return;
+        }
+        int row = rowSlots[findSlot(student, clazz, (int) date.toEpochDay())] - 1;
+        if (row >= 0) {
+            setBit(live, row, false);
+            setBit(present, row, false);
+        }
+    }
+
+    // Open addressing over row numbers: a slot holds row + 1 (0 is empty) and the
+    // key is compared against the columns, so the index costs 4 bytes per slot.
+    private int findSlot(int student, int clazz, int day) {
+        int mask = rowSlots.length - 1;
+        int slot = hash(student, clazz, day) & mask;
+        while (true) {
+            int row = rowSlots[slot] - 1;
+            if (row < 0 || (students[row] == student && classes[row] == clazz && days[row] == day)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int row = 0; row < size; row++) {
+            int slot = hash(students[row], classes[row], days[row]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = row + 1;
+        }
+        rowSlots = slots;
+    }
+
+    private static int hash(int student, int clazz, int day) {
+        long key = ((long) student << 32) ^ ((long) clazz << 20) ^ (day & 0xFFFFFFFFL);
+        key = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        key = (key ^ (key >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return (int) (key ^ (key >>> 33));
+    }
+
+    private int append(int student, int clazz, int day) {
+        if (size == students.length) {
+            int capacity = students.length * 2;
+            students = Arrays.copyOf(students, capacity);
+            classes = Arrays.copyOf(classes, capacity);
+            days = Arrays.copyOf(days, capacity);
+            present = Arrays.copyOf(present, capacity >>> 6);
+            live = Arrays.copyOf(live, capacity >>> 6);
+        }
+        students[size] = student;
+        classes[size] = clazz;
+        days[size] = day;
+        return size++;
+    }
+
+    private int indexOfStudent(Long studentId) {
+        return studentIndex.computeIfAbsent(studentId, key -> {
+            int index = studentIndex.size();
+            if (index == studentIds.length) {
+                studentIds = Arrays.copyOf(studentIds, index * 2);
+            }
+            studentIds[index] = key;
+            return index;
+        });
+    }
+
+    private int indexOfClass(Long classId) {
+        return classIndex.computeIfAbsent(classId, key -> {
+            int index = classIndex.size();
+            if (index == classIds.length) {
+                classIds = Arrays.copyOf(classIds, index * 2);
+            }
+            classIds[index] = key;
+            return index;
+        });
+    }
+
+    private static void setBit(long[] bits, int row, boolean value) {
+        if (value) {
+            bits[row >>> 6] |= 1L << row;
+        } else {
+            bits[row >>> 6] &= ~(1L << row);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowGroup {
+        int of(int row);
+    }
+}
@@ -0,0 +1,132 @@
+package com.smartattend.backend.attendance;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+public class AttendanceBitmap {
+    private final BitSet marked;
+    private final BitSet present;
+
+    public AttendanceBitmap() {
+        this(new BitSet(), new BitSet());
+    }
+
+    private AttendanceBitmap(BitSet marked, BitSet present) {
+        this.marked = marked;
+        this.present = present;
+    }
+
+    public static AttendanceBitmap decode(byte[] marked, byte[] present) {
+        return new AttendanceBitmap(BitSet.valueOf(marked), BitSet.valueOf(present));
+    }
+
+    public AttendanceBitmap copy() {
+        return new AttendanceBitmap(marked(), present());
+    }
+
+    public void set(int position, boolean isPresent) {
+        marked.set(position);
+        present.set(position, isPresent);
+    }
+
+    public boolean isMarked(int position) {
+        return marked.get(position);
+    }
+
+    public boolean isPresent(int position) {
+        return present.get(position);
+    }
+
+    public BitSet marked() {
+        return (BitSet) marked.clone();
+    }
+
+    public BitSet present() {
+        return (BitSet) present.clone();
+    }
+
+    public byte[] encodeMarked() {
+        return marked.toByteArray();
+    }
+
+    public byte[] encodePresent() {
+        return present.toByteArray();
+    }
+
+    /**
+     * Per-position marked and present counts over many bitmaps. Bitmaps are taken
+     * 64 at a time, and each 64x64 block of words is transposed so one position's
+     * 64 bitmaps sit in one word, which is then popcounted.
+     */
+    public static final class Tally {
+        private static final int BLOCK = Long.SIZE;
+
+        private final long[] marked;
+        private final long[] present;
+        private final long[][] markedBlock = new long[BLOCK][];
+        private final long[][] presentBlock = new long[BLOCK][];
+        private int buffered;
+
+        public Tally(int positions) {
+            this.marked = new long[positions];
+            this.present = new long[positions];
+        }
+
+        public void add(AttendanceBitmap bitmap) {
+            long[] markedWords = bitmap.marked.toLongArray();
+            long[] presentWords = Arrays.copyOf(bitmap.present.toLongArray(), markedWords.length);
+            for (int word = 0; word < markedWords.length; word++) {
+                presentWords[word] &= markedWords[word];
+            }
+            markedBlock[buffered] = markedWords;
+            presentBlock[buffered] = presentWords;
+            if (++buffered == BLOCK) {
+                flush();
+            }
+        }
+
+        public MarkCount count(int position) {
+            flush();
+            return new MarkCount(present[position], marked[position]);
+        }
+
+        private void flush() {
+            if (buffered == 0) {
+                return;
+            }
+            long[] column = new long[BLOCK];
+            for (int word = 0; word * BLOCK < marked.length; word++) {
+                accumulate(markedBlock, word, column, marked);
+                accumulate(presentBlock, word, column, present);
+            }
+            Arrays.fill(markedBlock, null);
+            Arrays.fill(presentBlock, null);
+            buffered = 0;
+        }
+
+        private void accumulate(long[][] block, int word, long[] column, long[] counts) {
+            for (int row = 0; row < BLOCK; row++) {
+                long[] words = row < buffered ? block[row] : null;
+                column[row] = words != null && word < words.length ? words[word] : 0L;
+            }
+            transpose(column);
+            int first = word * BLOCK;
+            for (int bit = 0; bit < BLOCK && first + bit < counts.length; bit++) {
+                counts[first + bit] += Long.bitCount(column[bit]);
+            }
+        }
+
+        // Swaps the off-diagonal halves, then quarters and so on, with masked shifts
+        // (Hacker's Delight 7-3), so bit c of word r ends up as bit r of word c.
+        static void transpose(long[] words) {
+            long mask = 0x00000000FFFFFFFFL;
+            for (int width = 32; width != 0; width >>= 1, mask ^= mask << width) {
+                for (int row = 0; row < BLOCK; row = ((row | width) + 1) & ~width) {
+                    long swap = ((words[row] >>> width) ^ words[row | width]) & mask;
+                    words[row] ^= swap << width;
+                    words[row | width] ^= swap;
+                }
+            }
+        }
+    }
+}
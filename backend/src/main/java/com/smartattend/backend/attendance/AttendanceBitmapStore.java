@@ -0,0 +1,407 @@
+package com.smartattend.backend.attendance;
+
+import com.smartattend.backend.attendance.AttendanceWriteService.ClassDayRoster;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AttendanceBitmapStore {
+    private static final String UPSERT_SQL = """
+        INSERT INTO attendance_bitmap (class_id, date, marked, present, marked_by, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE marked = VALUES(marked), present = VALUES(present),
+            marked_by = VALUES(marked_by), updated_at = VALUES(updated_at)
+        """;
+    private static final String LOCK_SEQUENCE_SQL = """
+        INSERT INTO class_roster_sequence (class_id, next_position)
+        SELECT ?, COALESCE(MAX(position), -1) + 1 FROM class_roster WHERE class_id = ?
+        ON DUPLICATE KEY UPDATE next_position = next_position
+        """;
+    private static final int[] UPSERT_TYPES = {
+        Types.BIGINT, Types.DATE, Types.VARBINARY, Types.VARBINARY, Types.BIGINT, Types.TIMESTAMP
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final boolean enabled;
+
+    public AttendanceBitmapStore(JdbcTemplate jdbcTemplate,
+                                 @Value("${smartattend.attendance.storage:rows}") String storage) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.enabled = "bitmap".equalsIgnoreCase(storage);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<MarkChange> writeRosters(Collection<ClassDayRoster> rosters) {
+        Map<Long, Map<Long, Integer>> positions = assignPositions(rosters.stream()
+            .collect(Collectors.groupingBy(ClassDayRoster::classId, LinkedHashMap::new,
+                Collectors.flatMapping(roster -> roster.marks().keySet().stream(), Collectors.toSet()))));
+        Map<ClassDay, AttendanceBitmap> existing = lock(rosters.stream()
+            .map(roster -> new ClassDay(roster.classId(), roster.date()))
+            .toList());
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(rosters.size());
+        List<MarkChange> changes = new ArrayList<>();
+        for (ClassDayRoster roster : rosters) {
+            AttendanceBitmap bitmap = new AttendanceBitmap();
+            Map<Long, Integer> classPositions = positions.get(roster.classId());
+            roster.marks().forEach((studentId, present) -> bitmap.set(classPositions.get(studentId), present));
+            rows.add(toRow(roster.classId(), roster.date(), bitmap, roster.markedBy(), now));
+            AttendanceBitmap before = existing.getOrDefault(new ClassDay(roster.classId(), roster.date()), new AttendanceBitmap());
+            changes.addAll(diff(roster.classId(), roster.date(), before, bitmap, classPositions));
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, UPSERT_TYPES);
+        return changes;
+    }
+
+    public List<MarkChange> applyChanges(Long classId, LocalDate date, Map<Long, Boolean> marks, Long markedBy) {
+        Map<Long, Integer> positions = assignPositions(Map.of(classId, marks.keySet())).get(classId);
+        AttendanceBitmap bitmap = lock(classId, date);
+        AttendanceBitmap before = bitmap.copy();
+        marks.forEach((studentId, present) -> bitmap.set(positions.get(studentId), present));
+        jdbcTemplate.update(UPSERT_SQL, toRow(classId, date, bitmap, markedBy, Timestamp.from(Instant.now())));
+        return diff(classId, date, before, bitmap, positions);
+    }
+
+    public List<MarkChange> mergeMarks(Collection<AttendanceMark> marks, Long markedBy) {
+        Map<ClassDay, Map<Long, Boolean>> byClassDay = new LinkedHashMap<>();
+        marks.forEach(mark -> byClassDay
+            .computeIfAbsent(new ClassDay(mark.classId(), mark.date()), key -> new LinkedHashMap<>())
+            .put(mark.studentId(), mark.present()));
+        if (byClassDay.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Set<Long>> studentsByClass = new LinkedHashMap<>();
+        byClassDay.forEach((classDay, classMarks) -> studentsByClass
+            .computeIfAbsent(classDay.classId(), key -> new HashSet<>())
+            .addAll(classMarks.keySet()));
+        Map<Long, Map<Long, Integer>> positions = assignPositions(studentsByClass);
+        Map<ClassDay, AttendanceBitmap> bitmaps = lock(byClassDay.keySet());
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(byClassDay.size());
+        List<MarkChange> changes = new ArrayList<>();
+        byClassDay.forEach((classDay, classMarks) -> {
+            AttendanceBitmap bitmap = bitmaps.getOrDefault(classDay, new AttendanceBitmap());
+            AttendanceBitmap before = bitmap.copy();
+            Map<Long, Integer> classPositions = positions.get(classDay.classId());
+            classMarks.forEach((studentId, present) -> bitmap.set(classPositions.get(studentId), present));
+            rows.add(toRow(classDay.classId(), classDay.date(), bitmap, markedBy, now));
+            changes.addAll(diff(classDay.classId(), classDay.date(), before, bitmap, classPositions));
+        });
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, UPSERT_TYPES);
+        return changes;
+    }
+
+    public Map<Long, Boolean> findClassDay(Long classId, LocalDate date) {
+        AttendanceBitmap bitmap = load(classId, date);
+        Map<Long, Boolean> marks = new LinkedHashMap<>();
+        long[] students = studentsByPosition(classId);
+        bitmap.marked().stream()
+            .filter(position -> position < students.length)
+            .forEach(position -> marks.put(students[position], bitmap.isPresent(position)));
+        return marks;
+    }
+
+    public List<AttendanceMark> findClassDays(Collection<ClassDay> classDays) {
+        if (classDays.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, long[]> studentsByClass = new HashMap<>();
+        List<AttendanceMark> marks = new ArrayList<>();
+        load(classDays).forEach((classDay, bitmap) -> {
+            long[] students = studentsByClass.computeIfAbsent(classDay.classId(), this::studentsByPosition);
+            bitmap.marked().stream()
+                .filter(position -> position < students.length)
+                .forEach(position -> marks.add(new AttendanceMark(
+                    students[position], classDay.classId(), classDay.date(), bitmap.isPresent(position)
+                )));
+        });
+        return marks;
+    }
+
+    public List<AttendanceMark> findClassRange(Long classId, LocalDate from, LocalDate to) {
+        long[] students = studentsByPosition(classId);
+        List<AttendanceMark> marks = new ArrayList<>();
+        jdbcTemplate.query(
+            "SELECT date, marked, present FROM attendance_bitmap WHERE class_id = ? AND date BETWEEN ? AND ? ORDER BY date",
+            rs -> {
+                LocalDate date = rs.getDate("date").toLocalDate();
+                AttendanceBitmap bitmap = AttendanceBitmap.decode(rs.getBytes("marked"), rs.getBytes("present"));
+                bitmap.marked().stream()
+                    .filter(position -> position < students.length)
+                    .forEach(position -> marks.add(new AttendanceMark(students[position], classId, date, bitmap.isPresent(position))));
+            },
+            classId,
+            Date.valueOf(from),
+            Date.valueOf(to)
+        );
+        return marks;
+    }
+
+    public void forEachMark(Consumer<AttendanceMark> consumer) {
+        Map<Long, Map<Integer, Long>> rosters = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT class_id, position, student_id FROM class_roster",
+            rs -> {
+                rosters.computeIfAbsent(rs.getLong("class_id"), key -> new HashMap<>())
+                    .put(rs.getInt("position"), rs.getLong("student_id"));
+            }
+        );
+        jdbcTemplate.query(
+            "SELECT class_id, date, marked, present FROM attendance_bitmap",
+            rs -> {
+                Long classId = rs.getLong("class_id");
+                LocalDate date = rs.getDate("date").toLocalDate();
+                Map<Integer, Long> roster = rosters.getOrDefault(classId, Map.of());
+                AttendanceBitmap bitmap = AttendanceBitmap.decode(rs.getBytes("marked"), rs.getBytes("present"));
+                bitmap.marked().stream()
+                    .filter(roster::containsKey)
+                    .forEach(position -> consumer.accept(
+                        new AttendanceMark(roster.get(position), classId, date, bitmap.isPresent(position))
+                    ));
+            }
+        );
+    }
+
+    public Map<LocalDate, Boolean> findStudentDays(Long classId, Long studentId, LocalDate from, LocalDate to) {
+        Map<LocalDate, Boolean> days = new LinkedHashMap<>();
+        List<Integer> positions = jdbcTemplate.queryForList(
+            "SELECT position FROM class_roster WHERE class_id = ? AND student_id = ?",
+            Integer.class,
+            classId,
+            studentId
+        );
+        if (positions.isEmpty()) {
+            return days;
+        }
+        int position = positions.get(0);
+        jdbcTemplate.query(
+            "SELECT date, marked, present FROM attendance_bitmap WHERE class_id = ? AND date BETWEEN ? AND ? ORDER BY date",
+            rs -> {
+                AttendanceBitmap bitmap = AttendanceBitmap.decode(rs.getBytes("marked"), rs.getBytes("present"));
+                if (bitmap.isMarked(position)) {
+                    days.put(rs.getDate("date").toLocalDate(), bitmap.isPresent(position));
+                }
+            },
+            classId,
+            Date.valueOf(from),
+            Date.valueOf(to)
+        );
+        return days;
+    }
+
+    public Map<Long, Map<LocalDate, Boolean>> findStudentsDays(Collection<Long> studentIds, LocalDate from, LocalDate to) {
+        Map<Long, Map<LocalDate, Boolean>> days = new HashMap<>();
+        if (studentIds.isEmpty()) {
+            return days;
+        }
+        Map<Long, Map<Integer, Long>> positions = new HashMap<>();
+        namedJdbcTemplate.query(
+            "SELECT class_id, position, student_id FROM class_roster WHERE student_id IN (:studentIds)",
+            new MapSqlParameterSource("studentIds", studentIds),
+            rs -> {
+                positions.computeIfAbsent(rs.getLong("class_id"), key -> new HashMap<>())
+                    .put(rs.getInt("position"), rs.getLong("student_id"));
+            }
+        );
+        if (positions.isEmpty()) {
+            return days;
+        }
+        namedJdbcTemplate.query(
+            "SELECT class_id, date, marked, present FROM attendance_bitmap"
+                + " WHERE class_id IN (:classIds) AND date BETWEEN :from AND :to",
+            new MapSqlParameterSource("classIds", positions.keySet())
+                .addValue("from", Date.valueOf(from))
+                .addValue("to", Date.valueOf(to)),
+            rs -> {
+                LocalDate date = rs.getDate("date").toLocalDate();
+                AttendanceBitmap bitmap = AttendanceBitmap.decode(rs.getBytes("marked"), rs.getBytes("present"));
+                positions.get(rs.getLong("class_id")).forEach((position, studentId) -> {
+                    if (bitmap.isMarked(position)) {
+                        days.computeIfAbsent(studentId, key -> new TreeMap<>())
+                            .merge(date, bitmap.isPresent(position), Boolean::logicalOr);
+                    }
+                });
+            }
+        );
+        return days;
+    }
+
+    public List<MarkChange> clear(Long classId, LocalDate date) {
+        Map<Long, Integer> positions = assignPositions(Map.of(classId, Set.of())).get(classId);
+        AttendanceBitmap before = lock(classId, date);
+        jdbcTemplate.update("DELETE FROM attendance_bitmap WHERE class_id = ? AND date = ?", classId, Date.valueOf(date));
+        return diff(classId, date, before, new AttendanceBitmap(), positions);
+    }
+
+    public Map<Long, MarkCount> countByStudent(Long classId, LocalDate from, LocalDate to) {
+        long[] students = studentsByPosition(classId);
+        AttendanceBitmap.Tally tally = new AttendanceBitmap.Tally(students.length);
+        jdbcTemplate.query(
+            "SELECT marked, present FROM attendance_bitmap WHERE class_id = ? AND date BETWEEN ? AND ?",
+            rs -> {
+                tally.add(AttendanceBitmap.decode(rs.getBytes("marked"), rs.getBytes("present")));
+            },
+            classId,
+            Date.valueOf(from),
+            Date.valueOf(to)
+        );
+        Map<Long, MarkCount> counts = new HashMap<>();
+        for (int position = 0; position < students.length; position++) {
+            if (students[position] != 0) {
+                counts.put(students[position], tally.count(position));
+            }
+        }
+        return counts;
+    }
+
+    private AttendanceBitmap load(Long classId, LocalDate date) {
+        return load(classId, date, "");
+    }
+
+    private AttendanceBitmap lock(Long classId, LocalDate date) {
+        return load(classId, date, " FOR UPDATE");
+    }
+
+    private AttendanceBitmap load(Long classId, LocalDate date, String lockClause) {
+        List<AttendanceBitmap> bitmaps = jdbcTemplate.query(
+            "SELECT marked, present FROM attendance_bitmap WHERE class_id = ? AND date = ?" + lockClause,
+            (rs, rowNum) -> AttendanceBitmap.decode(rs.getBytes("marked"), rs.getBytes("present")),
+            classId,
+            Date.valueOf(date)
+        );
+        return bitmaps.isEmpty() ? new AttendanceBitmap() : bitmaps.get(0);
+    }
+
+    private Map<ClassDay, AttendanceBitmap> load(Collection<ClassDay> classDays) {
+        return load(classDays, "");
+    }
+
+    private Map<ClassDay, AttendanceBitmap> lock(Collection<ClassDay> classDays) {
+        return load(classDays, " FOR UPDATE");
+    }
+
+    private Map<ClassDay, AttendanceBitmap> load(Collection<ClassDay> classDays, String lockClause) {
+        List<Object[]> keys = classDays.stream()
+            .map(classDay -> new Object[] {classDay.classId(), Date.valueOf(classDay.date())})
+            .toList();
+        Map<ClassDay, AttendanceBitmap> bitmaps = new HashMap<>();
+        namedJdbcTemplate.query(
+            "SELECT class_id, date, marked, present FROM attendance_bitmap WHERE (class_id, date) IN (:keys)" + lockClause,
+            new MapSqlParameterSource("keys", keys),
+            rs -> {
+                bitmaps.put(
+                    new ClassDay(rs.getLong("class_id"), rs.getDate("date").toLocalDate()),
+                    AttendanceBitmap.decode(rs.getBytes("marked"), rs.getBytes("present"))
+                );
+            }
+        );
+        return bitmaps;
+    }
+
+    private long[] studentsByPosition(Long classId) {
+        Map<Integer, Long> byPosition = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT student_id, position FROM class_roster WHERE class_id = ?",
+            rs -> {
+                byPosition.put(rs.getInt("position"), rs.getLong("student_id"));
+            },
+            classId
+        );
+        long[] students = new long[byPosition.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1];
+        byPosition.forEach((position, studentId) -> students[position] = studentId);
+        return students;
+    }
+
+    private Map<Long, Map<Long, Integer>> assignPositions(Map<Long, Set<Long>> studentsByClass) {
+        Map<Long, Map<Long, Integer>> positions = new HashMap<>();
+        studentsByClass.keySet().forEach(classId -> positions.put(classId, new HashMap<>()));
+        if (positions.isEmpty()) {
+            return positions;
+        }
+        List<Long> classIds = positions.keySet().stream().sorted().toList();
+        jdbcTemplate.batchUpdate(LOCK_SEQUENCE_SQL, classIds.stream().map(classId -> new Object[] {classId, classId}).toList());
+        Map<Long, Integer> nextPositions = new HashMap<>();
+        namedJdbcTemplate.query(
+            "SELECT class_id, next_position FROM class_roster_sequence WHERE class_id IN (:classIds) FOR UPDATE",
+            new MapSqlParameterSource("classIds", classIds),
+            rs -> {
+                nextPositions.put(rs.getLong("class_id"), rs.getInt("next_position"));
+            }
+        );
+        namedJdbcTemplate.query(
+            "SELECT class_id, student_id, position FROM class_roster WHERE class_id IN (:classIds) FOR UPDATE",
+            new MapSqlParameterSource("classIds", classIds),
+            rs -> {
+                positions.get(rs.getLong("class_id")).put(rs.getLong("student_id"), rs.getInt("position"));
+            }
+        );
+
+        List<Object[]> added = new ArrayList<>();
+        List<Object[]> advanced = new ArrayList<>();
+        studentsByClass.forEach((classId, studentIds) -> {
+            Map<Long, Integer> classPositions = positions.get(classId);
+            int next = nextPositions.get(classId);
+            int first = next;
+            for (Long studentId : studentIds) {
+                if (!classPositions.containsKey(studentId)) {
+                    classPositions.put(studentId, next);
+                    added.add(new Object[] {classId, studentId, next});
+                    next++;
+                }
+            }
+            if (next != first) {
+                advanced.add(new Object[] {next, classId});
+            }
+        });
+        if (!added.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO class_roster (class_id, student_id, position) VALUES (?, ?, ?)", added);
+            jdbcTemplate.batchUpdate("UPDATE class_roster_sequence SET next_position = ? WHERE class_id = ?", advanced);
+        }
+        return positions;
+    }
+
+    private static List<MarkChange> diff(Long classId, LocalDate date, AttendanceBitmap before,
+                                         AttendanceBitmap after, Map<Long, Integer> positions) {
+        List<MarkChange> changes = new ArrayList<>();
+        positions.forEach((studentId, position) -> {
+            Boolean previous = before.isMarked(position) ? before.isPresent(position) : null;
+            Boolean current = after.isMarked(position) ? after.isPresent(position) : null;
+            if (!Objects.equals(previous, current)) {
+                changes.add(new MarkChange(studentId, classId, date, previous, current));
+            }
+        });
+        return changes;
+    }
+
+    private static Object[] toRow(Long classId, LocalDate date, AttendanceBitmap bitmap, Long markedBy, Timestamp now) {
+        return new Object[] {classId, Date.valueOf(date), bitmap.encodeMarked(), bitmap.encodePresent(), markedBy, now};
+    }
+}
@@ -0,0 +1,5 @@
+package com.smartattend.backend.attendance;
+
+import java.util.List;
+
+public record AttendanceChangedEvent(List<MarkChange> changes) {}
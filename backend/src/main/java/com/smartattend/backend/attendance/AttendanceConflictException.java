@@ -0,0 +1,26 @@
+package com.smartattend.backend.attendance;
+
+import java.util.List;
+
+public class AttendanceConflictException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final long currentVersion;
+    private final List<StudentConflict> conflicts;
+
+    public AttendanceConflictException(long currentVersion, List<StudentConflict> conflicts) {
+        super("Attendance sheet was modified concurrently");
+        this.currentVersion = currentVersion;
+        this.conflicts = conflicts;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+
+    public List<StudentConflict> getConflicts() {
+        return conflicts;
+    }
+
+    public record StudentConflict(Long studentId, String studentName, Boolean currentPresent, Boolean requestedPresent) {}
+}
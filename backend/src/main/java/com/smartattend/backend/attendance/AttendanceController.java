@@ -1,18 +1,34 @@
 package com.smartattend.backend.attendance;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattend.backend.attendance.AttendanceConflictException.StudentConflict;
+import com.smartattend.backend.attendance.AttendanceImportService.ImportError;
+import com.smartattend.backend.attendance.AttendanceImportService.ImportFormat;
+import com.smartattend.backend.attendance.AttendanceImportService.ImportListener;
+import com.smartattend.backend.attendance.AttendanceImportService.ImportProgress;
+import com.smartattend.backend.attendance.AttendanceWriteService.SheetResult;
 import com.smartattend.backend.auth.UserAccount;
 import com.smartattend.backend.auth.UserAccountRepository;
-import com.smartattend.backend.classes.ClassEntity;
-import com.smartattend.backend.classes.ClassRepository;
-import com.smartattend.backend.students.Student;
-import com.smartattend.backend.students.StudentRepository;
+import com.smartattend.backend.cache.DataVersions;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
@@ -20,71 +36,231 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/attendance")
 public class AttendanceController {
+    private static final String SHEET_VERSION_HEADER = "X-Sheet-Version";
+
     private final AttendanceRepository attendanceRepository;
-    private final StudentRepository studentRepository;
-    private final ClassRepository classRepository;
+    private final AttendanceLogRepository attendanceLogRepository;
+    private final AttendanceWriteService attendanceWriteService;
+    private final AttendanceBitmapStore bitmapStore;
+    private final AttendanceImportService attendanceImportService;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectProvider<AttendanceIngestQueue> ingestQueueProvider;
     private final UserAccountRepository userAccountRepository;
+    private final DataVersions dataVersions;
 
     public AttendanceController(AttendanceRepository attendanceRepository,
-                                StudentRepository studentRepository,
-                                ClassRepository classRepository,
-                                UserAccountRepository userAccountRepository) {
+                                AttendanceLogRepository attendanceLogRepository,
+                                AttendanceWriteService attendanceWriteService,
+                                AttendanceBitmapStore bitmapStore,
+                                AttendanceImportService attendanceImportService,
+                                ObjectMapper objectMapper,
+                                IdempotencyStore idempotencyStore,
+                                ObjectProvider<AttendanceIngestQueue> ingestQueueProvider,
+                                UserAccountRepository userAccountRepository,
+                                DataVersions dataVersions) {
         this.attendanceRepository = attendanceRepository;
-        this.studentRepository = studentRepository;
-        this.classRepository = classRepository;
+        this.attendanceLogRepository = attendanceLogRepository;
+        this.attendanceWriteService = attendanceWriteService;
+        this.bitmapStore = bitmapStore;
+        this.attendanceImportService = attendanceImportService;
+        this.objectMapper = objectMapper;
+        this.idempotencyStore = idempotencyStore;
+        this.ingestQueueProvider = ingestQueueProvider;
         this.userAccountRepository = userAccountRepository;
+        this.dataVersions = dataVersions;
     }
 
     @GetMapping
-    public List<AttendanceResponse> getAttendance(
+    public ResponseEntity<List<AttendanceResponse>> getAttendance(
         @RequestParam Long classId,
-        @RequestParam String date
+        @RequestParam String date,
+        WebRequest webRequest
     ) {
         LocalDate parsedDate = LocalDate.parse(date);
-        return attendanceRepository.findByClassEntityIdAndDate(classId, parsedDate).stream()
+        if (dataVersions.notModified(webRequest, dataVersions.forClassDate(classId, parsedDate))) {
+            return null;
+        }
+        long version = attendanceWriteService.currentVersion(classId, parsedDate);
+        AttendanceIngestQueue ingestQueue = ingestQueueProvider.getIfAvailable();
+        if (ingestQueue != null) {
+            Optional<List<AttendanceResponse>> queued = ingestQueue.findPending(classId, parsedDate);
+            if (queued.isPresent()) {
+                return withVersion(ResponseEntity.ok(), version, queued.get());
+            }
+        }
+        if (bitmapStore.isEnabled()) {
+            List<AttendanceItem> items = bitmapStore.findClassDay(classId, parsedDate).entrySet().stream()
+                .map(entry -> new AttendanceItem(entry.getKey(), entry.getValue(), null))
+                .toList();
+            return withVersion(ResponseEntity.ok(), version, attendanceWriteService.previewClassDay(classId, parsedDate, items));
+        }
+        List<AttendanceResponse> records = attendanceRepository.findByClassEntityIdAndDate(classId, parsedDate).stream()
             .map(AttendanceResponse::from)
             .toList();
+        return withVersion(ResponseEntity.ok(), version, records);
     }
 
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public List<AttendanceResponse> saveAttendance(
+    public ResponseEntity<List<AttendanceResponse>> saveAttendance(
         @Valid @RequestBody AttendanceRequest request,
-        @RequestHeader(name = "X-User-Id", required = false) Long userId
+        @RequestHeader(name = "X-User-Id", required = false) Long userId,
+        @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey
     ) {
-        LocalDate parsedDate = LocalDate.parse(request.date());
-        ClassEntity classEntity = classRepository.findById(request.classId()).orElseThrow();
-        UserAccount marker = userId == null ? null : userAccountRepository.findById(userId).orElse(null);
+        return idempotent("POST", idempotencyKey, request, userId, () -> {
+            LocalDate parsedDate = LocalDate.parse(request.date());
+            Long markedBy = resolveMarker(userId);
+            AttendanceIngestQueue ingestQueue = ingestQueueProvider.getIfAvailable();
+            if (ingestQueue != null && request.expectedVersion() == null) {
+                List<AttendanceResponse> queued = ingestQueue.enqueue(request.classId(), parsedDate, request.records(), markedBy);
+                dataVersions.bumpClassDate(request.classId(), parsedDate);
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(queued);
+            }
+            flushQueued(request.classId(), parsedDate);
+            SheetResult result = attendanceWriteService.replaceClassDay(
+                request.classId(), parsedDate, request.records(), markedBy, request.expectedVersion()
+            );
+            return withVersion(ResponseEntity.status(HttpStatus.CREATED), result.version(), result.records());
+        });
+    }
+
+    @PatchMapping
+    public ResponseEntity<List<AttendanceResponse>> updateAttendance(
+        @Valid @RequestBody AttendanceRequest request,
+        @RequestHeader(name = "X-User-Id", required = false) Long userId,
+        @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey
+    ) {
+        return idempotent("PATCH", idempotencyKey, request, userId, () -> {
+            LocalDate parsedDate = LocalDate.parse(request.date());
+            flushQueued(request.classId(), parsedDate);
+            SheetResult result = attendanceWriteService.applyChanges(
+                request.classId(), parsedDate, request.records(), resolveMarker(userId), request.expectedVersion()
+            );
+            return withVersion(ResponseEntity.ok(), result.version(), result.records());
+        });
+    }
 
-        List<AttendanceRecord> existing = attendanceRepository.findByClassEntityIdAndDate(classEntity.getId(), parsedDate);
-        attendanceRepository.deleteAll(existing);
+    @PostMapping("/import")
+    public void importAttendance(
+        @RequestParam(required = false) Long classId,
+        @RequestParam(defaultValue = "csv") String format,
+        @RequestHeader(name = "X-User-Id", required = false) Long userId,
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        ImportFormat importFormat = "ndjson".equalsIgnoreCase(format) ? ImportFormat.NDJSON : ImportFormat.CSV;
+        Long markedBy = resolveMarker(userId);
+        response.setContentType("application/x-ndjson");
+        PrintWriter writer = response.getWriter();
+        ImportProgress summary = attendanceImportService.importMarks(
+            request.getInputStream(),
+            importFormat,
+            classId,
+            markedBy,
+            new ImportListener() {
+                @Override
+                public void onProgress(ImportProgress progress) {
+                    writeLine(writer, new ImportEvent("progress", progress, null));
+                    writer.flush();
+                }
 
-        List<AttendanceRecord> saved = request.records().stream().map(record -> {
-            Student student = studentRepository.findById(record.studentId()).orElseThrow();
-            return new AttendanceRecord(student, classEntity, parsedDate, record.present(), marker);
-        }).map(attendanceRepository::save).toList();
+                @Override
+                public void onError(ImportError error) {
+                    writeLine(writer, new ImportEvent("error", null, error));
+                }
+            }
+        );
+        writeLine(writer, new ImportEvent("summary", summary, null));
+        writer.flush();
+    }
 
-        return saved.stream().map(AttendanceResponse::from).toList();
+    @GetMapping("/log")
+    public List<AttendanceLogResponse> getAttendanceLog(
+        @RequestParam Long classId,
+        @RequestParam String date
+    ) {
+        LocalDate parsedDate = LocalDate.parse(date);
+        return attendanceLogRepository.findByClassIdAndDate(classId, parsedDate).stream()
+            .map(AttendanceLogResponse::from)
+            .toList();
     }
 
     @DeleteMapping
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void clearAttendance(@RequestParam Long classId, @RequestParam String date) {
         LocalDate parsedDate = LocalDate.parse(date);
-        attendanceRepository.deleteAll(attendanceRepository.findByClassEntityIdAndDate(classId, parsedDate));
+        flushQueued(classId, parsedDate);
+        attendanceWriteService.clearClassDay(classId, parsedDate);
+    }
+
+    @ExceptionHandler(AttendanceConflictException.class)
+    public ResponseEntity<ConflictResponse> handleConflict(AttendanceConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .header(SHEET_VERSION_HEADER, String.valueOf(ex.getCurrentVersion()))
+            .body(new ConflictResponse(ex.getMessage(), ex.getCurrentVersion(), ex.getConflicts()));
+    }
+
+    private static ResponseEntity<List<AttendanceResponse>> withVersion(ResponseEntity.BodyBuilder builder,
+                                                                        long version,
+                                                                        List<AttendanceResponse> records) {
+        return builder.header(SHEET_VERSION_HEADER, String.valueOf(version)).body(records);
     }
 
+    private <T> T idempotent(String method,
+                             String idempotencyKey,
+                             AttendanceRequest request,
+                             Long userId,
+                             Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        String fingerprint = IdempotencyStore.fingerprint(
+            method,
+            String.valueOf(userId),
+            String.valueOf(request.classId()),
+            request.date(),
+            String.valueOf(request.expectedVersion()),
+            request.records().toString()
+        );
+        return idempotencyStore.execute(idempotencyKey, fingerprint, action);
+    }
+
+    private void writeLine(PrintWriter writer, ImportEvent event) {
+        try {
+            writer.println(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void flushQueued(Long classId, LocalDate date) {
+        AttendanceIngestQueue ingestQueue = ingestQueueProvider.getIfAvailable();
+        if (ingestQueue != null) {
+            ingestQueue.flushIfPending(classId, date);
+        }
+    }
+
+    private Long resolveMarker(Long userId) {
+        return userId == null ? null : userAccountRepository.findById(userId).map(UserAccount::getId).orElse(null);
+    }
+
+    public record ImportEvent(String type, ImportProgress progress, ImportError error) {}
+
     public record AttendanceRequest(
         @NotNull Long classId,
         @NotNull String date,
-        @NotNull List<AttendanceItem> records
+        @NotNull List<AttendanceItem> records,
+        Long expectedVersion
     ) {}
 
-    public record AttendanceItem(@NotNull Long studentId, boolean present) {}
+    public record AttendanceItem(@NotNull Long studentId, boolean present, Boolean previous) {}
+
+    public record ConflictResponse(String message, long currentVersion, List<StudentConflict> conflicts) {}
 
     public record AttendanceResponse(
         Long id,
@@ -107,4 +283,28 @@ public class AttendanceController {
             );
         }
     }
+
+    public record AttendanceLogResponse(
+        Long id,
+        Long attendanceId,
+        Long studentId,
+        String studentName,
+        boolean previousStatus,
+        boolean newStatus,
+        Long changedBy,
+        Instant changedAt
+    ) {
+        public static AttendanceLogResponse from(AttendanceLog log) {
+            return new AttendanceLogResponse(
+                log.getId(),
+                log.getAttendance().getId(),
+                log.getAttendance().getStudent().getId(),
+                log.getAttendance().getStudent().getFullName(),
+                log.isPreviousStatus(),
+                log.isNewStatus(),
+                log.getChangedBy() == null ? null : log.getChangedBy().getId(),
+                log.getChangedAt()
+            );
+        }
+    }
 }
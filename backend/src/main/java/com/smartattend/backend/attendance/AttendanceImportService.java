@@ -0,0 +1,211 @@
+package com.smartattend.backend.attendance;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattend.backend.students.StudentRepository;
+import com.smartattend.backend.students.StudentRoll;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+@Service
+public class AttendanceImportService {
+    private final StudentRepository studentRepository;
+    private final AttendanceWriteService attendanceWriteService;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public AttendanceImportService(StudentRepository studentRepository,
+                                   AttendanceWriteService attendanceWriteService,
+                                   ObjectMapper objectMapper,
+                                   @Value("${smartattend.attendance.import.batch-size:2000}") int batchSize) {
+        this.studentRepository = studentRepository;
+        this.attendanceWriteService = attendanceWriteService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    public ImportProgress importMarks(InputStream input,
+                                      ImportFormat format,
+                                      Long defaultClassId,
+                                      Long markedBy,
+                                      ImportListener listener) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Map<Long, Map<String, Long>> rollsByClass = new HashMap<>();
+        List<AttendanceMark> batch = new ArrayList<>(batchSize);
+        CsvHeader header = null;
+        long lineNumber = 0;
+        long rows = 0;
+        long imported = 0;
+        long errors = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == ImportFormat.CSV && header == null) {
+                header = CsvHeader.parse(line);
+                continue;
+            }
+            rows++;
+            try {
+                RawRow row = format == ImportFormat.CSV ? header.read(line) : readJson(line);
+                batch.add(resolve(row, defaultClassId, rollsByClass));
+            } catch (IllegalArgumentException ex) {
+                errors++;
+                listener.onError(new ImportError(lineNumber, ex.getMessage()));
+            }
+            if (batch.size() >= batchSize) {
+                attendanceWriteService.writeMarks(batch, markedBy);
+                imported += batch.size();
+                batch.clear();
+                listener.onProgress(new ImportProgress(rows, imported, errors));
+            }
+        }
+        if (!batch.isEmpty()) {
+            attendanceWriteService.writeMarks(batch, markedBy);
+            imported += batch.size();
+        }
+        return new ImportProgress(rows, imported, errors);
+    }
+
+    private AttendanceMark resolve(RawRow row, Long defaultClassId, Map<Long, Map<String, Long>> rollsByClass) {
+        Long classId = row.classId() != null ? row.classId() : defaultClassId;
+        if (classId == null) {
+            throw new IllegalArgumentException("Missing class_id");
+        }
+        LocalDate date;
+        try {
+            date = LocalDate.parse(row.date());
+        } catch (DateTimeParseException | NullPointerException ex) {
+            throw new IllegalArgumentException("Invalid date '" + row.date() + "'");
+        }
+        Long studentId = rollsByClass
+            .computeIfAbsent(classId, id -> studentRepository.findRollsByClassId(id).stream()
+                .collect(Collectors.toMap(StudentRoll::getRollNo, StudentRoll::getId, (first, second) -> first)))
+            .get(row.rollNo());
+        if (studentId == null) {
+            throw new IllegalArgumentException("Unknown roll number '" + row.rollNo() + "' in class " + classId);
+        }
+        return new AttendanceMark(studentId, classId, date, parsePresent(row.present()));
+    }
+
+    private RawRow readJson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Malformed JSON");
+        }
+        return new RawRow(
+            node.hasNonNull("classId") ? node.get("classId").asLong() : null,
+            node.path("date").asText(null),
+            node.path("rollNo").asText(null),
+            node.path("present").asText(null)
+        );
+    }
+
+    private static boolean parsePresent(String value) {
+        String normalized = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        return switch (normalized) {
+            case "true", "1", "p", "present", "yes", "y" -> true;
+            case "false", "0", "a", "absent", "no", "n" -> false;
+            default -> throw new IllegalArgumentException("Invalid present value '" + value + "'");
+        };
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    public enum ImportFormat {
+        CSV,
+        NDJSON
+    }
+
+    public interface ImportListener {
+        void onProgress(ImportProgress progress);
+
+        void onError(ImportError error);
+    }
+
+    public record ImportProgress(long rows, long imported, long errors) {}
+
+    public record ImportError(long line, String message) {}
+
+    private record RawRow(Long classId, String date, String rollNo, String present) {}
+
+    private record CsvHeader(int classId, int date, int rollNo, int present) {
+        static CsvHeader parse(String line) {
+            List<String> columns = splitCsv(line).stream().map(column -> column.toLowerCase(Locale.ROOT)).toList();
+            CsvHeader header = new CsvHeader(
+                columns.indexOf("class_id"),
+                columns.indexOf("date"),
+                columns.indexOf("roll_no"),
+                columns.indexOf("present")
+            );
+            if (header.date() < 0 || header.rollNo() < 0 || header.present() < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "CSV header must contain date, roll_no and present columns");
+            }
+            return header;
+        }
+
+        RawRow read(String line) {
+            List<String> fields = splitCsv(line);
+            int columns = Math.max(Math.max(date, rollNo), Math.max(present, classId)) + 1;
+            if (fields.size() < columns) {
+                throw new IllegalArgumentException("Expected " + columns + " columns");
+            }
+            Long parsedClassId = null;
+            if (classId >= 0 && !fields.get(classId).isEmpty()) {
+                try {
+                    parsedClassId = Long.parseLong(fields.get(classId));
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("Invalid class_id '" + fields.get(classId) + "'");
+                }
+            }
+            return new RawRow(parsedClassId, fields.get(date), fields.get(rollNo), fields.get(present));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.smartattend.backend.attendance;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "attendance_ingest_queue")
+public class AttendanceIngestEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "class_id", nullable = false)
+    private Long classId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(name = "marked_by")
+    private Long markedBy;
+
+    @Column(name = "queued_at", nullable = false)
+    private Instant queuedAt = Instant.now();
+
+    @Column(nullable = false)
+    private int attempts;
+
+    protected AttendanceIngestEntry() {}
+
+    public AttendanceIngestEntry(Long classId, LocalDate date, String payload, Long markedBy) {
+        this.classId = classId;
+        this.date = date;
+        this.payload = payload;
+        this.markedBy = markedBy;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getClassId() {
+        return classId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public Long getMarkedBy() {
+        return markedBy;
+    }
+
+    public Instant getQueuedAt() {
+        return queuedAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+}
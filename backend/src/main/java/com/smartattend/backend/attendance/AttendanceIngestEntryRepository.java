@@ -0,0 +1,12 @@
+package com.smartattend.backend.attendance;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AttendanceIngestEntryRepository extends JpaRepository<AttendanceIngestEntry, Long> {
+    List<AttendanceIngestEntry> findAllByOrderByIdAsc(Pageable pageable);
+
+    List<AttendanceIngestEntry> findByClassIdAndDateAndIdLessThanEqual(Long classId, LocalDate date, Long id);
+}
@@ -0,0 +1,256 @@
+package com.smartattend.backend.attendance;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattend.backend.attendance.AttendanceController.AttendanceItem;
+import com.smartattend.backend.attendance.AttendanceController.AttendanceResponse;
+import com.smartattend.backend.attendance.AttendanceWriteService.ClassDayRoster;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+@ConditionalOnProperty(name = "smartattend.attendance.ingest.mode", havingValue = "queued")
+public class AttendanceIngestQueue {
+    private static final Logger log = LoggerFactory.getLogger(AttendanceIngestQueue.class);
+    private static final TypeReference<List<AttendanceItem>> ITEMS = new TypeReference<>() {};
+    private static final String DEAD_LETTER_SQL = """
+        INSERT INTO attendance_ingest_dead_letter
+            (id, class_id, date, payload, marked_by, queued_at, attempts, reason, failed_at)
+        SELECT id, class_id, date, payload, marked_by, queued_at, attempts, ?, ?
+        FROM attendance_ingest_queue WHERE id = ?
+        """;
+
+    private final AttendanceIngestEntryRepository entryRepository;
+    private final AttendanceWriteService attendanceWriteService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Map<ClassDay, PendingRoster> pending = new ConcurrentHashMap<>();
+    private final ReadWriteLock visibilityLock = new ReentrantReadWriteLock();
+    private final Lock drainLock = new ReentrantLock();
+
+    public AttendanceIngestQueue(AttendanceIngestEntryRepository entryRepository,
+                                 AttendanceWriteService attendanceWriteService,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 JdbcTemplate jdbcTemplate,
+                                 @Value("${smartattend.attendance.ingest.batch-size:500}") int batchSize,
+                                 @Value("${smartattend.attendance.ingest.max-attempts:5}") int maxAttempts) {
+        this.entryRepository = entryRepository;
+        this.attendanceWriteService = attendanceWriteService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+    }
+
+    public List<AttendanceResponse> enqueue(Long classId, LocalDate date, List<AttendanceItem> items, Long markedBy) {
+        List<AttendanceResponse> preview = attendanceWriteService.previewClassDay(classId, date, items);
+        visibilityLock.readLock().lock();
+        try {
+            AttendanceIngestEntry entry = entryRepository.save(
+                new AttendanceIngestEntry(classId, date, writeItems(items), markedBy)
+            );
+            pending.merge(
+                new ClassDay(classId, date),
+                new PendingRoster(entry.getId(), preview),
+                (current, queued) -> current.entryId() > queued.entryId() ? current : queued
+            );
+        } finally {
+            visibilityLock.readLock().unlock();
+        }
+        return preview;
+    }
+
+    public Optional<List<AttendanceResponse>> findPending(Long classId, LocalDate date) {
+        return Optional.ofNullable(pending.get(new ClassDay(classId, date))).map(PendingRoster::responses);
+    }
+
+    public void flushIfPending(Long classId, LocalDate date) {
+        ClassDay classDay = new ClassDay(classId, date);
+        PendingRoster queued = pending.get(classDay);
+        if (queued == null) {
+            return;
+        }
+        drain();
+        if (pending.containsKey(classDay)) {
+            drainLock.lock();
+            try {
+                List<AttendanceIngestEntry> unwritten =
+                    entryRepository.findByClassIdAndDateAndIdLessThanEqual(classId, date, queued.entryId());
+                if (!unwritten.isEmpty()) {
+                    log.warn("Moving {} unwritable queued submissions for class {} on {} to the dead letter table,"
+                        + " superseded by a direct write", unwritten.size(), classId, date);
+                    deadLetter(unwritten, "Superseded by a direct write");
+                }
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restorePending() {
+        for (AttendanceIngestEntry entry : entryRepository.findAll(Sort.by("id"))) {
+            try {
+                List<AttendanceResponse> preview = attendanceWriteService.previewClassDay(
+                    entry.getClassId(), entry.getDate(), readItems(entry)
+                );
+                pending.put(new ClassDay(entry.getClassId(), entry.getDate()), new PendingRoster(entry.getId(), preview));
+            } catch (RuntimeException ex) {
+                log.warn("Queued attendance submission {} could not be restored", entry.getId(), ex);
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.info("Restored {} queued attendance submissions", pending.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${smartattend.attendance.ingest.flush-interval:1000}")
+    public void drain() {
+        drainLock.lock();
+        try {
+            List<AttendanceIngestEntry> entries;
+            int committed;
+            do {
+                visibilityLock.writeLock().lock();
+                try {
+                    entries = entryRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+                } finally {
+                    visibilityLock.writeLock().unlock();
+                }
+                committed = commit(entries);
+            } while (entries.size() == batchSize && committed == entries.size());
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private int commit(List<AttendanceIngestEntry> entries) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        try {
+            write(entries);
+            entries.forEach(this::release);
+            return entries.size();
+        } catch (RuntimeException ex) {
+            log.warn("Group commit of {} queued attendance submissions failed, writing them one by one", entries.size(), ex);
+        }
+
+        // Once an entry fails, later entries for its class/day wait behind it: writing
+        // them now would let the retry of the older entry overwrite newer marks.
+        int committed = 0;
+        Set<ClassDay> blocked = new HashSet<>();
+        for (AttendanceIngestEntry entry : entries) {
+            ClassDay classDay = new ClassDay(entry.getClassId(), entry.getDate());
+            if (blocked.contains(classDay)) {
+                continue;
+            }
+            try {
+                write(List.of(entry));
+                release(entry);
+                committed++;
+            } catch (RuntimeException ex) {
+                recordFailure(entry, ex);
+                blocked.add(classDay);
+            }
+        }
+        return committed;
+    }
+
+    private void recordFailure(AttendanceIngestEntry entry, RuntimeException ex) {
+        int attempts = entry.getAttempts() + 1;
+        if (attempts < maxAttempts) {
+            log.warn("Queued attendance submission {} for class {} on {} could not be written (attempt {} of {}): {}",
+                entry.getId(), entry.getClassId(), entry.getDate(), attempts, maxAttempts, ex.toString());
+            jdbcTemplate.update("UPDATE attendance_ingest_queue SET attempts = ? WHERE id = ?", attempts, entry.getId());
+            return;
+        }
+        log.error("Queued attendance submission {} for class {} on {} failed {} times, moving it to the dead letter table",
+            entry.getId(), entry.getClassId(), entry.getDate(), attempts, ex);
+        jdbcTemplate.update("UPDATE attendance_ingest_queue SET attempts = ? WHERE id = ?", attempts, entry.getId());
+        deadLetter(List.of(entry), ex.toString());
+    }
+
+    private void deadLetter(List<AttendanceIngestEntry> entries, String reason) {
+        String truncated = reason.length() > 1000 ? reason.substring(0, 1000) : reason;
+        Timestamp now = Timestamp.from(Instant.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(DEAD_LETTER_SQL, entries.stream()
+                .map(entry -> new Object[] {truncated, now, entry.getId()})
+                .toList());
+            entryRepository.deleteAllByIdInBatch(entries.stream().map(AttendanceIngestEntry::getId).toList());
+        });
+        entries.forEach(this::release);
+    }
+
+    private void write(List<AttendanceIngestEntry> entries) {
+        Map<Long, ClassDayRoster> rosters = new LinkedHashMap<>();
+        entries.forEach(entry -> rosters.put(entry.getId(), toRoster(entry)));
+        transactionTemplate.executeWithoutResult(status -> {
+            attendanceWriteService.writeRosters(List.copyOf(rosters.values()));
+            entryRepository.deleteAllByIdInBatch(rosters.keySet());
+        });
+    }
+
+    private void release(AttendanceIngestEntry entry) {
+        pending.computeIfPresent(
+            new ClassDay(entry.getClassId(), entry.getDate()),
+            (classDay, roster) -> roster.entryId() <= entry.getId() ? null : roster
+        );
+    }
+
+    private ClassDayRoster toRoster(AttendanceIngestEntry entry) {
+        Map<Long, Boolean> marks = new LinkedHashMap<>();
+        readItems(entry).forEach(item -> marks.put(item.studentId(), item.present()));
+        return new ClassDayRoster(entry.getClassId(), entry.getDate(), marks, entry.getMarkedBy());
+    }
+
+    private String writeItems(List<AttendanceItem> items) {
+        try {
+            return objectMapper.writeValueAsString(items);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private List<AttendanceItem> readItems(AttendanceIngestEntry entry) {
+        try {
+            return objectMapper.readValue(entry.getPayload(), ITEMS);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable queued attendance submission " + entry.getId(), ex);
+        }
+    }
+
+    private record PendingRoster(long entryId, List<AttendanceResponse> responses) {}
+}
@@ -0,0 +1,67 @@
+package com.smartattend.backend.attendance;
+
+import com.smartattend.backend.auth.UserAccount;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+@Entity
+@Table(name = "attendance_log")
+public class AttendanceLog {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "attendance_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private AttendanceRecord attendance;
+
+    @Column(name = "previous_status", nullable = false)
+    private boolean previousStatus;
+
+    @Column(name = "new_status", nullable = false)
+    private boolean newStatus;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "changed_by")
+    private UserAccount changedBy;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt = Instant.now();
+
+    protected AttendanceLog() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public AttendanceRecord getAttendance() {
+        return attendance;
+    }
+
+    public boolean isPreviousStatus() {
+        return previousStatus;
+    }
+
+    public boolean isNewStatus() {
+        return newStatus;
+    }
+
+    public UserAccount getChangedBy() {
+        return changedBy;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
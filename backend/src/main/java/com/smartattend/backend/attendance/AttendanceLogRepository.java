@@ -0,0 +1,18 @@
+package com.smartattend.backend.attendance;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AttendanceLogRepository extends JpaRepository<AttendanceLog, Long> {
+    @Query("""
+        select log from AttendanceLog log
+        join fetch log.attendance record
+        join fetch record.student
+        where record.classEntity.id = :classId and record.date = :date
+        order by log.changedAt
+        """)
+    List<AttendanceLog> findByClassIdAndDate(@Param("classId") Long classId, @Param("date") LocalDate date);
+}
@@ -0,0 +1,5 @@
+package com.smartattend.backend.attendance;
+
+import java.time.LocalDate;
+
+public record AttendanceMark(Long studentId, Long classId, LocalDate date, boolean present) {}
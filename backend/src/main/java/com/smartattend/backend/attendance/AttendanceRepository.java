@@ -1,11 +1,78 @@
 package com.smartattend.backend.attendance;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface AttendanceRepository extends JpaRepository<AttendanceRecord, Long> {
     List<AttendanceRecord> findByClassEntityIdAndDate(Long classId, LocalDate date);
     List<AttendanceRecord> findByDate(LocalDate date);
     List<AttendanceRecord> findByClassEntityId(Long classId);
+
+    @Query("""
+        select new com.smartattend.backend.attendance.AttendanceMark(a.student.id, a.classEntity.id, a.date, a.present)
+        from AttendanceRecord a
+        where a.classEntity.id in :classIds and a.date in :dates
+        """)
+    List<AttendanceMark> findMarks(@Param("classIds") Collection<Long> classIds, @Param("dates") Collection<LocalDate> dates);
+
+    @Query("""
+        select a from AttendanceRecord a
+        join fetch a.student
+        where a.classEntity.id = :classId and a.date between :from and :to
+        order by a.date, a.student.id
+        """)
+    List<AttendanceRecord> findClassRange(@Param("classId") Long classId,
+                                          @Param("from") LocalDate from,
+                                          @Param("to") LocalDate to);
+
+    @Query("""
+        select new com.smartattend.backend.attendance.AttendanceMark(a.student.id, a.classEntity.id, a.date, a.present)
+        from AttendanceRecord a
+        where a.classEntity.id = :classId and a.date between :from and :to
+        """)
+    List<AttendanceMark> findClassMarks(@Param("classId") Long classId,
+                                        @Param("from") LocalDate from,
+                                        @Param("to") LocalDate to);
+
+    @Query("""
+        select new com.smartattend.backend.attendance.AttendanceMark(a.student.id, a.classEntity.id, a.date, a.present)
+        from AttendanceRecord a
+        where a.student.id = :studentId and a.date between :from and :to
+        order by a.date
+        """)
+    List<AttendanceMark> findStudentMarks(@Param("studentId") Long studentId,
+                                          @Param("from") LocalDate from,
+                                          @Param("to") LocalDate to);
+
+    @Query("""
+        select new com.smartattend.backend.attendance.AttendanceMark(a.student.id, a.classEntity.id, a.date, a.present)
+        from AttendanceRecord a
+        where a.student.id in :studentIds and a.date between :from and :to
+        order by a.student.id, a.date
+        """)
+    List<AttendanceMark> findStudentsMarks(@Param("studentIds") Collection<Long> studentIds,
+                                           @Param("from") LocalDate from,
+                                           @Param("to") LocalDate to);
+
+    @Query("""
+        select new com.smartattend.backend.attendance.StudentMarkTotals(
+            s.id, s.rollNo, s.fullName, c.name,
+            count(a.id), coalesce(sum(case when a.present = true then 1 else 0 end), 0)
+        )
+        from Student s
+        join s.classEntity c
+        left join AttendanceRecord a on a.student = s and a.classEntity = c
+            and a.date between :from and :to
+        where (:classId is null or c.id = :classId) and (:studentId is null or s.id = :studentId)
+        group by s.id, s.rollNo, s.fullName, c.name
+        order by s.id
+        """)
+    List<StudentMarkTotals> findStudentTotals(@Param("classId") Long classId,
+                                              @Param("studentId") Long studentId,
+                                              @Param("from") LocalDate from,
+                                              @Param("to") LocalDate to);
 }
@@ -0,0 +1,75 @@
+package com.smartattend.backend.attendance;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AttendanceSheetVersions {
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AttendanceSheetVersions(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public long current(ClassDay classDay) {
+        List<Long> versions = jdbcTemplate.queryForList(
+            "SELECT version FROM attendance_sheet WHERE class_id = ? AND date = ?",
+            Long.class,
+            classDay.classId(),
+            Date.valueOf(classDay.date())
+        );
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+
+    public void bump(Collection<ClassDay> classDays) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(
+            """
+            INSERT INTO attendance_sheet (class_id, date, version, updated_at) VALUES (?, ?, 1, ?)
+            ON DUPLICATE KEY UPDATE version = version + 1, updated_at = VALUES(updated_at)
+            """,
+            classDays.stream()
+                .map(classDay -> new Object[] {classDay.classId(), Date.valueOf(classDay.date()), now})
+                .toList()
+        );
+        eventPublisher.publishEvent(new AttendanceSheetsBumpedEvent(List.copyOf(classDays)));
+    }
+
+    public boolean compareAndBump(ClassDay classDay, long expectedVersion) {
+        Timestamp now = Timestamp.from(Instant.now());
+        if (expectedVersion == 0) {
+            try {
+                jdbcTemplate.update(
+                    "INSERT INTO attendance_sheet (class_id, date, version, updated_at) VALUES (?, ?, 1, ?)",
+                    classDay.classId(),
+                    Date.valueOf(classDay.date()),
+                    now
+                );
+                eventPublisher.publishEvent(new AttendanceSheetsBumpedEvent(List.of(classDay)));
+                return true;
+            } catch (DuplicateKeyException ex) {
+                return false;
+            }
+        }
+        boolean bumped = jdbcTemplate.update(
+            "UPDATE attendance_sheet SET version = version + 1, updated_at = ? WHERE class_id = ? AND date = ? AND version = ?",
+            now,
+            classDay.classId(),
+            Date.valueOf(classDay.date()),
+            expectedVersion
+        ) == 1;
+        if (bumped) {
+            eventPublisher.publishEvent(new AttendanceSheetsBumpedEvent(List.of(classDay)));
+        }
+        return bumped;
+    }
+}
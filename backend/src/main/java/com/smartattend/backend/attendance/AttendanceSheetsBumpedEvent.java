@@ -0,0 +1,5 @@
+package com.smartattend.backend.attendance;
+
+import java.util.Collection;
+
+public record AttendanceSheetsBumpedEvent(Collection<ClassDay> classDays) {}
@@ -0,0 +1,443 @@
+package com.smartattend.backend.attendance;
+
+import com.smartattend.backend.attendance.AttendanceConflictException.StudentConflict;
+import com.smartattend.backend.attendance.AttendanceController.AttendanceItem;
+import com.smartattend.backend.attendance.AttendanceController.AttendanceResponse;
+import com.smartattend.backend.classes.ClassEntity;
+import com.smartattend.backend.classes.ClassRepository;
+import com.smartattend.backend.students.Student;
+import com.smartattend.backend.students.StudentRepository;
+import com.smartattend.backend.sync.SyncChangeLog;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class AttendanceWriteService {
+    private static final String UPSERT_SQL = """
+        INSERT INTO attendance (student_id, class_id, date, is_present, marked_by, created_at)
+        VALUES (?, ?, ?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE is_present = VALUES(is_present), marked_by = VALUES(marked_by)
+        """;
+    private static final String UPDATE_SQL = "UPDATE attendance SET is_present = ?, marked_by = ? WHERE id = ?";
+    private static final String LOG_SQL = """
+        INSERT INTO attendance_log (attendance_id, previous_status, new_status, changed_by, changed_at)
+        VALUES (?, ?, ?, ?, ?)
+        """;
+    private static final int[] UPSERT_TYPES = {
+        Types.BIGINT, Types.BIGINT, Types.DATE, Types.BOOLEAN, Types.BIGINT, Types.TIMESTAMP
+    };
+
+    private static final int MAX_REBASE_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final StudentRepository studentRepository;
+    private final ClassRepository classRepository;
+    private final AttendanceBitmapStore bitmapStore;
+    private final SyncChangeLog syncChangeLog;
+    private final AttendanceSheetVersions sheetVersions;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AttendanceWriteService(JdbcTemplate jdbcTemplate,
+                                  StudentRepository studentRepository,
+                                  ClassRepository classRepository,
+                                  AttendanceBitmapStore bitmapStore,
+                                  SyncChangeLog syncChangeLog,
+                                  AttendanceSheetVersions sheetVersions,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.studentRepository = studentRepository;
+        this.classRepository = classRepository;
+        this.bitmapStore = bitmapStore;
+        this.syncChangeLog = syncChangeLog;
+        this.sheetVersions = sheetVersions;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public SheetResult replaceClassDay(Long classId,
+                                       LocalDate date,
+                                       List<AttendanceItem> items,
+                                       Long markedBy,
+                                       Long expectedVersion) {
+        Map<Long, Boolean> marks = toMarks(items);
+        ClassDay classDay = new ClassDay(classId, date);
+        long version = lockSheet(classDay, expectedVersion, marks, items, true);
+        ClassEntity classEntity = classRepository.findById(classId).orElseThrow();
+        Map<Long, Student> students = loadStudents(marks.keySet());
+        syncChangeLog.recordAttendance(List.of(classDay), false);
+        publish(storeRosters(Map.of(classDay, new ClassDayRoster(classId, date, marks, markedBy))));
+
+        Map<Long, ExistingMark> stored = bitmapStore.isEnabled() ? Map.of() : findExisting(classId, date);
+        return new SheetResult(version, toResponses(classEntity, date, marks, students, stored));
+    }
+
+    @Transactional(readOnly = true)
+    public List<AttendanceResponse> previewClassDay(Long classId, LocalDate date, List<AttendanceItem> items) {
+        ClassEntity classEntity = classRepository.findById(classId).orElseThrow();
+        Map<Long, Boolean> marks = toMarks(items);
+        Map<Long, Student> students = loadStudents(marks.keySet());
+        return toResponses(classEntity, date, marks, students, Map.of());
+    }
+
+    @Transactional
+    public void writeRosters(List<ClassDayRoster> rosters) {
+        Map<ClassDay, ClassDayRoster> latest = new LinkedHashMap<>();
+        rosters.forEach(roster -> latest.put(new ClassDay(roster.classId(), roster.date()), roster));
+        if (latest.isEmpty()) {
+            return;
+        }
+        sheetVersions.bump(latest.keySet());
+        syncChangeLog.recordAttendance(latest.keySet(), false);
+        publish(storeRosters(latest));
+    }
+
+    private List<MarkChange> storeRosters(Map<ClassDay, ClassDayRoster> latest) {
+        if (bitmapStore.isEnabled()) {
+            return bitmapStore.writeRosters(latest.values());
+        }
+
+        Map<ClassDay, Map<Long, ExistingMark>> existing = findExisting(latest.keySet());
+        List<Long> removed = new ArrayList<>();
+        List<MarkChange> changes = new ArrayList<>();
+        latest.forEach((classDay, roster) -> {
+            Map<Long, ExistingMark> stored = existing.getOrDefault(classDay, Map.of());
+            stored.forEach((studentId, mark) -> {
+                if (!roster.marks().containsKey(studentId)) {
+                    removed.add(mark.id());
+                    changes.add(new MarkChange(studentId, classDay.classId(), classDay.date(), mark.present(), null));
+                }
+            });
+            roster.marks().forEach((studentId, present) -> {
+                ExistingMark mark = stored.get(studentId);
+                if (mark == null || mark.present() != present) {
+                    changes.add(new MarkChange(
+                        studentId, classDay.classId(), classDay.date(), mark == null ? null : mark.present(), present
+                    ));
+                }
+            });
+        });
+        if (!removed.isEmpty()) {
+            namedJdbcTemplate.update("DELETE FROM attendance WHERE id IN (:ids)", new MapSqlParameterSource("ids", removed));
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>();
+        latest.values().forEach(roster -> roster.marks().forEach((studentId, present) -> rows.add(
+            new Object[] {studentId, roster.classId(), Date.valueOf(roster.date()), present, roster.markedBy(), now}
+        )));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, UPSERT_TYPES);
+        return changes;
+    }
+
+    @Transactional
+    public SheetResult applyChanges(Long classId,
+                                    LocalDate date,
+                                    List<AttendanceItem> items,
+                                    Long markedBy,
+                                    Long expectedVersion) {
+        Map<Long, Boolean> marks = toMarks(items);
+        ClassDay classDay = new ClassDay(classId, date);
+        long version = lockSheet(classDay, expectedVersion, marks, items, false);
+        ClassEntity classEntity = classRepository.findById(classId).orElseThrow();
+        Map<Long, Student> students = loadStudents(marks.keySet());
+        syncChangeLog.recordAttendance(List.of(classDay), false);
+        if (bitmapStore.isEnabled()) {
+            publish(bitmapStore.applyChanges(classId, date, marks, markedBy));
+            return new SheetResult(version, toResponses(classEntity, date, marks, students, Map.of()));
+        }
+        Map<Long, ExistingMark> existing = findExisting(classId, date, marks.keySet());
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> logs = new ArrayList<>();
+        Map<Long, Boolean> inserts = new LinkedHashMap<>();
+        List<MarkChange> changes = new ArrayList<>();
+        marks.forEach((studentId, present) -> {
+            ExistingMark current = existing.get(studentId);
+            if (current == null) {
+                inserts.put(studentId, present);
+                changes.add(new MarkChange(studentId, classId, date, null, present));
+            } else if (current.present() != present) {
+                updates.add(new Object[] {present, markedBy, current.id()});
+                logs.add(new Object[] {current.id(), current.present(), present, markedBy, now});
+                changes.add(new MarkChange(studentId, classId, date, current.present(), present));
+            }
+        });
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates, new int[] {Types.BOOLEAN, Types.BIGINT, Types.BIGINT});
+            jdbcTemplate.batchUpdate(LOG_SQL, logs, new int[] {
+                Types.BIGINT, Types.BOOLEAN, Types.BOOLEAN, Types.BIGINT, Types.TIMESTAMP
+            });
+        }
+
+        Map<Long, ExistingMark> stored = new HashMap<>(existing);
+        if (!inserts.isEmpty()) {
+            upsert(classId, date, inserts, markedBy);
+            stored.putAll(findExisting(classId, date, inserts.keySet()));
+        }
+        publish(changes);
+        return new SheetResult(version, toResponses(classEntity, date, marks, students, stored));
+    }
+
+    @Transactional
+    public void writeMarks(List<AttendanceMark> marks, Long markedBy) {
+        if (marks.isEmpty()) {
+            return;
+        }
+        Set<ClassDay> classDays = marks.stream()
+            .map(mark -> new ClassDay(mark.classId(), mark.date()))
+            .collect(Collectors.toSet());
+        sheetVersions.bump(classDays);
+        syncChangeLog.recordAttendance(classDays, false);
+        if (bitmapStore.isEnabled()) {
+            publish(bitmapStore.mergeMarks(marks, markedBy));
+            return;
+        }
+        Map<ClassDay, Map<Long, ExistingMark>> existing = findExisting(classDays);
+        Map<ClassDay, Map<Long, Boolean>> latest = new LinkedHashMap<>();
+        marks.forEach(mark -> latest
+            .computeIfAbsent(new ClassDay(mark.classId(), mark.date()), key -> new LinkedHashMap<>())
+            .put(mark.studentId(), mark.present()));
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(marks.size());
+        List<MarkChange> changes = new ArrayList<>();
+        latest.forEach((classDay, classMarks) -> classMarks.forEach((studentId, present) -> {
+            rows.add(new Object[] {studentId, classDay.classId(), Date.valueOf(classDay.date()), present, markedBy, now});
+            ExistingMark mark = existing.getOrDefault(classDay, Map.of()).get(studentId);
+            Boolean previous = mark == null ? null : mark.present();
+            if (!Objects.equals(previous, present)) {
+                changes.add(new MarkChange(studentId, classDay.classId(), classDay.date(), previous, present));
+            }
+        }));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, UPSERT_TYPES);
+        publish(changes);
+    }
+
+    @Transactional
+    public void clearClassDay(Long classId, LocalDate date) {
+        ClassDay classDay = new ClassDay(classId, date);
+        sheetVersions.bump(List.of(classDay));
+        syncChangeLog.recordAttendance(List.of(classDay), true);
+        if (bitmapStore.isEnabled()) {
+            publish(bitmapStore.clear(classId, date));
+            return;
+        }
+        List<MarkChange> changes = new ArrayList<>();
+        findExisting(classId, date).forEach((studentId, mark) ->
+            changes.add(new MarkChange(studentId, classId, date, mark.present(), null)));
+        jdbcTemplate.update("DELETE FROM attendance WHERE class_id = ? AND date = ?", classId, Date.valueOf(date));
+        publish(changes);
+    }
+
+    private void publish(List<MarkChange> changes) {
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new AttendanceChangedEvent(changes));
+        }
+    }
+
+    private void upsert(Long classId, LocalDate date, Map<Long, Boolean> marks, Long markedBy) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(marks.size());
+        marks.forEach((studentId, present) ->
+            rows.add(new Object[] {studentId, classId, Date.valueOf(date), present, markedBy, now}));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, UPSERT_TYPES);
+    }
+
+    @Transactional(readOnly = true)
+    public long currentVersion(Long classId, LocalDate date) {
+        return sheetVersions.current(new ClassDay(classId, date));
+    }
+
+    private long lockSheet(ClassDay classDay,
+                           Long expectedVersion,
+                           Map<Long, Boolean> marks,
+                           List<AttendanceItem> items,
+                           boolean fullRoster) {
+        if (expectedVersion == null) {
+            sheetVersions.bump(List.of(classDay));
+            return sheetVersions.current(classDay);
+        }
+        return claimVersion(classDay, expectedVersion, marks, items, fullRoster);
+    }
+
+    private long claimVersion(ClassDay classDay,
+                              long expectedVersion,
+                              Map<Long, Boolean> marks,
+                              List<AttendanceItem> items,
+                              boolean fullRoster) {
+        Map<Long, Boolean> previous = new HashMap<>();
+        items.forEach(item -> previous.put(item.studentId(), item.previous()));
+
+        long expected = expectedVersion;
+        for (int attempt = 0; attempt < MAX_REBASE_ATTEMPTS; attempt++) {
+            if (sheetVersions.compareAndBump(classDay, expected)) {
+                return expected + 1;
+            }
+            // Plain reads, so a rebase never queues behind other teachers. The version is
+            // read before the marks, and a writer that commits after either read moves
+            // the version, so the conditional bump below fails rather than accepting a
+            // rebase computed from stale marks.
+            long currentVersion = sheetVersions.current(classDay);
+            Map<Long, Boolean> current = currentMarks(classDay);
+            Map<Long, Boolean> requestedChanges = new LinkedHashMap<>();
+            marks.forEach((studentId, requested) -> {
+                Boolean stored = current.get(studentId);
+                boolean unchangedSinceRead = previous.get(studentId) != null && previous.get(studentId).equals(stored);
+                if (!requested.equals(stored) && !unchangedSinceRead) {
+                    requestedChanges.put(studentId, requested);
+                }
+            });
+            if (fullRoster) {
+                current.keySet().stream()
+                    .filter(studentId -> !marks.containsKey(studentId))
+                    .forEach(studentId -> requestedChanges.put(studentId, null));
+            }
+            if (!requestedChanges.isEmpty()) {
+                Map<Long, String> names = studentRepository.findAllById(requestedChanges.keySet()).stream()
+                    .collect(Collectors.toMap(Student::getId, Student::getFullName));
+                List<StudentConflict> conflicts = new ArrayList<>();
+                requestedChanges.forEach((studentId, requested) ->
+                    conflicts.add(new StudentConflict(studentId, names.get(studentId), current.get(studentId), requested)));
+                throw new AttendanceConflictException(currentVersion, conflicts);
+            }
+            expected = currentVersion;
+        }
+        throw new AttendanceConflictException(sheetVersions.current(classDay), List.of());
+    }
+
+    private Map<Long, Boolean> currentMarks(ClassDay classDay) {
+        if (bitmapStore.isEnabled()) {
+            return bitmapStore.findClassDay(classDay.classId(), classDay.date());
+        }
+        Map<Long, Boolean> current = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT student_id, is_present FROM attendance WHERE class_id = ? AND date = ?",
+            rs -> {
+                current.put(rs.getLong("student_id"), rs.getBoolean("is_present"));
+            },
+            classDay.classId(),
+            Date.valueOf(classDay.date())
+        );
+        return current;
+    }
+
+    private static Map<Long, Boolean> toMarks(List<AttendanceItem> items) {
+        Map<Long, Boolean> marks = new LinkedHashMap<>();
+        items.forEach(item -> marks.put(item.studentId(), item.present()));
+        return marks;
+    }
+
+    private List<AttendanceResponse> toResponses(ClassEntity classEntity,
+                                                 LocalDate date,
+                                                 Map<Long, Boolean> marks,
+                                                 Map<Long, Student> students,
+                                                 Map<Long, ExistingMark> stored) {
+        return marks.entrySet().stream()
+            .map(entry -> {
+                Student student = students.get(entry.getKey());
+                ExistingMark mark = stored.get(student.getId());
+                return new AttendanceResponse(
+                    mark == null ? null : mark.id(),
+                    student.getId(),
+                    student.getFullName(),
+                    classEntity.getId(),
+                    classEntity.getName(),
+                    date.toString(),
+                    entry.getValue()
+                );
+            })
+            .toList();
+    }
+
+    private Map<Long, Student> loadStudents(Collection<Long> studentIds) {
+        Map<Long, Student> students = studentRepository.findAllById(studentIds).stream()
+            .collect(Collectors.toMap(Student::getId, Function.identity()));
+        studentIds.stream()
+            .filter(id -> !students.containsKey(id))
+            .findFirst()
+            .ifPresent(id -> {
+                throw new NoSuchElementException("Student " + id + " not found");
+            });
+        return students;
+    }
+
+    private Map<Long, ExistingMark> findExisting(Long classId, LocalDate date) {
+        Map<Long, ExistingMark> marks = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT id, student_id, is_present FROM attendance WHERE class_id = ? AND date = ? FOR UPDATE",
+            rs -> {
+                marks.put(rs.getLong("student_id"), new ExistingMark(rs.getLong("id"), rs.getBoolean("is_present")));
+            },
+            classId,
+            Date.valueOf(date)
+        );
+        return marks;
+    }
+
+    private Map<ClassDay, Map<Long, ExistingMark>> findExisting(Collection<ClassDay> classDays) {
+        List<Object[]> keys = classDays.stream()
+            .map(classDay -> new Object[] {classDay.classId(), Date.valueOf(classDay.date())})
+            .toList();
+        Map<ClassDay, Map<Long, ExistingMark>> marks = new HashMap<>();
+        namedJdbcTemplate.query(
+            "SELECT id, student_id, class_id, date, is_present FROM attendance WHERE (class_id, date) IN (:keys) FOR UPDATE",
+            new MapSqlParameterSource("keys", keys),
+            rs -> {
+                ClassDay classDay = new ClassDay(rs.getLong("class_id"), rs.getDate("date").toLocalDate());
+                marks.computeIfAbsent(classDay, key -> new HashMap<>())
+                    .put(rs.getLong("student_id"), new ExistingMark(rs.getLong("id"), rs.getBoolean("is_present")));
+            }
+        );
+        return marks;
+    }
+
+    private Map<Long, ExistingMark> findExisting(Long classId, LocalDate date, Collection<Long> studentIds) {
+        Map<Long, ExistingMark> marks = new HashMap<>();
+        if (studentIds.isEmpty()) {
+            return marks;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("classId", classId)
+            .addValue("date", Date.valueOf(date))
+            .addValue("studentIds", studentIds);
+        namedJdbcTemplate.query(
+            "SELECT id, student_id, is_present FROM attendance"
+                + " WHERE class_id = :classId AND date = :date AND student_id IN (:studentIds) FOR UPDATE",
+            params,
+            rs -> {
+                marks.put(rs.getLong("student_id"), new ExistingMark(rs.getLong("id"), rs.getBoolean("is_present")));
+            }
+        );
+        return marks;
+    }
+
+    public record SheetResult(long version, List<AttendanceResponse> records) {}
+
+    public record ClassDayRoster(Long classId, LocalDate date, Map<Long, Boolean> marks, Long markedBy) {}
+
+    private record ExistingMark(long id, boolean present) {}
+}
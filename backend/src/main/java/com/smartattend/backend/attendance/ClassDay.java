@@ -0,0 +1,5 @@
+package com.smartattend.backend.attendance;
+
+import java.time.LocalDate;
+
+public record ClassDay(Long classId, LocalDate date) {}
@@ -0,0 +1,26 @@
+package com.smartattend.backend.attendance;
+
+import java.time.LocalDate;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public record DateRange(LocalDate from, LocalDate to) {
+    public static final LocalDate EARLIEST = LocalDate.of(1000, 1, 1);
+    public static final LocalDate LATEST = LocalDate.of(9999, 12, 31);
+    public static final DateRange ALL = new DateRange(EARLIEST, LATEST);
+
+    public static DateRange parse(String from, String to) {
+        DateRange range = new DateRange(
+            from == null || from.isBlank() ? EARLIEST : LocalDate.parse(from),
+            to == null || to.isBlank() ? LATEST : LocalDate.parse(to)
+        );
+        if (range.from.isAfter(range.to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        return range;
+    }
+
+    public boolean isAll() {
+        return equals(ALL);
+    }
+}
@@ -0,0 +1,116 @@
+package com.smartattend.backend.attendance;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+@Component
+public class IdempotencyStore {
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Clock clock = Clock.systemUTC();
+    private final Counter suppressed;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public IdempotencyStore(@Value("${smartattend.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${smartattend.idempotency.ttl:PT24H}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.suppressed = Counter.builder("attendance.idempotency.suppressed")
+            .description("Attendance submissions answered from the idempotency store")
+            .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, String fingerprint, Supplier<T> action) {
+        CompletableFuture<Object> result;
+        boolean owner = false;
+        synchronized (this) {
+            Instant now = clock.instant();
+            evictExpired(now);
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.fingerprint().equals(fingerprint)) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+            }
+            if (entry == null) {
+                entry = new Entry(fingerprint, new CompletableFuture<>(), now.plus(ttl));
+                entries.put(key, entry);
+                while (entries.size() > maxEntries) {
+                    Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+                owner = true;
+            }
+            result = entry.result();
+        }
+
+        if (!owner) {
+            suppressed.increment();
+            try {
+                return (T) result.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw ex;
+            }
+        }
+
+        try {
+            T value = action.get();
+            result.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                entries.remove(key);
+            }
+            result.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    public static String fingerprint(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void evictExpired(Instant now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.expiresAt().isAfter(now)) {
+                break;
+            }
+            iterator.remove();
+        }
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<Object> result, Instant expiresAt) {}
+}
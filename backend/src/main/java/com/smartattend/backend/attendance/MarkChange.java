@@ -0,0 +1,13 @@
+package com.smartattend.backend.attendance;
+
+import java.time.LocalDate;
+
+public record MarkChange(Long studentId, Long classId, LocalDate date, Boolean previous, Boolean current) {
+    public int presentDelta() {
+        return (Boolean.TRUE.equals(current) ? 1 : 0) - (Boolean.TRUE.equals(previous) ? 1 : 0);
+    }
+
+    public int totalDelta() {
+        return (current != null ? 1 : 0) - (previous != null ? 1 : 0);
+    }
+}
@@ -0,0 +1,17 @@
+package com.smartattend.backend.attendance;
+
+public record MarkCount(long present, long total) {
+    public static final MarkCount EMPTY = new MarkCount(0, 0);
+
+    public MarkCount plus(MarkCount other) {
+        return new MarkCount(present + other.present, total + other.total);
+    }
+
+    public long absent() {
+        return total - present;
+    }
+
+    public int percentage() {
+        return total == 0 ? 0 : Math.toIntExact(Math.round((present * 100.0) / total));
+    }
+}
@@ -0,0 +1,10 @@
+package com.smartattend.backend.attendance;
+
+public record StudentMarkTotals(
+    Long studentId,
+    String rollNo,
+    String fullName,
+    String className,
+    Long total,
+    Long present
+) {}
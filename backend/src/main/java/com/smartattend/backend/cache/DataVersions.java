@@ -0,0 +1,107 @@
+package com.smartattend.backend.cache;
+
+import com.smartattend.backend.attendance.AttendanceChangedEvent;
+import com.smartattend.backend.attendance.AttendanceSheetsBumpedEvent;
+import com.smartattend.backend.attendance.ClassDay;
+import com.smartattend.backend.attendance.MarkChange;
+import com.smartattend.backend.classes.ClassesChangedEvent;
+import com.smartattend.backend.students.StudentsChangedEvent;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.WebRequest;
+
+@Component
+public class DataVersions {
+    private final boolean enabled;
+    private final AtomicLong school = new AtomicLong();
+    private final ConcurrentMap<Long, Long> classes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ClassDay, Long> classDays = new ConcurrentHashMap<>();
+    private volatile String epoch = newEpoch();
+
+    public DataVersions(@Value("${smartattend.etags.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean notModified(WebRequest request, String etag) {
+        return enabled && request.checkNotModified(etag);
+    }
+
+    public String school(Object... qualifiers) {
+        return tag(qualifiers, school.get());
+    }
+
+    public String forClass(Long classId, Object... qualifiers) {
+        if (classId == null) {
+            return school(qualifiers);
+        }
+        return tag(qualifiers, classes.getOrDefault(classId, 0L));
+    }
+
+    public String forClassDate(Long classId, LocalDate date) {
+        return tag(new Object[] {date}, classes.getOrDefault(classId, 0L), classDays.getOrDefault(new ClassDay(classId, date), 0L));
+    }
+
+    public void bumpClassDate(Long classId, LocalDate date) {
+        classDays.merge(new ClassDay(classId, date), 1L, Long::sum);
+        bumpClasses(Set.of(classId));
+    }
+
+    public void invalidateAll() {
+        epoch = newEpoch();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        Set<ClassDay> changed = event.changes().stream()
+            .map(change -> new ClassDay(change.classId(), change.date()))
+            .collect(Collectors.toSet());
+        changed.forEach(classDay -> classDays.merge(classDay, 1L, Long::sum));
+        bumpClasses(event.changes().stream().map(MarkChange::classId).collect(Collectors.toSet()));
+    }
+
+    // GET /api/attendance returns the sheet version in X-Sheet-Version, so a write
+    // that moves only the version (no mark changed) must still change the ETag.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSheetsBumped(AttendanceSheetsBumpedEvent event) {
+        event.classDays().forEach(classDay -> classDays.merge(classDay, 1L, Long::sum));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentsChanged(StudentsChangedEvent event) {
+        bumpClasses(event.classIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClassesChanged(ClassesChangedEvent event) {
+        bumpClasses(event.classId() == null ? Set.of() : Set.of(event.classId()));
+    }
+
+    private void bumpClasses(Set<Long> classIds) {
+        classIds.forEach(classId -> classes.merge(classId, 1L, Long::sum));
+        school.incrementAndGet();
+    }
+
+    private String tag(Object[] qualifiers, long... versions) {
+        StringJoiner joiner = new StringJoiner("-", "\"", "\"").add(epoch);
+        for (long version : versions) {
+            joiner.add(Long.toString(version));
+        }
+        for (Object qualifier : qualifiers) {
+            joiner.add(String.valueOf(qualifier));
+        }
+        return joiner.toString();
+    }
+
+    private static String newEpoch() {
+        return Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    }
+}
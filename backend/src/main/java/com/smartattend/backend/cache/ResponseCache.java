@@ -0,0 +1,49 @@
+package com.smartattend.backend.cache;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ResponseCache {
+    public static final String DASHBOARD = "dashboard";
+    public static final String STUDENT_REPORTS = "student-reports";
+    public static final String CLASSES = "classes";
+
+    private final CacheManager cacheManager;
+    private final Environment environment;
+
+    public ResponseCache(CacheManager cacheManager, Environment environment) {
+        this.cacheManager = cacheManager;
+        this.environment = environment;
+    }
+
+    public <T> T get(String name, Object key, Supplier<T> loader) {
+        Cache cache = cache(name);
+        return cache == null ? loader.get() : cache.get(key, loader::get);
+    }
+
+    public void evict(String name) {
+        Cache cache = cache(name);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    public void evictIf(String name, Predicate<Object> key) {
+        if (cache(name) instanceof CaffeineCache caffeineCache) {
+            caffeineCache.getNativeCache().asMap().keySet().removeIf(key);
+        }
+    }
+
+    private Cache cache(String name) {
+        if (!environment.getProperty("smartattend.cache." + name + ".enabled", Boolean.class, true)) {
+            return null;
+        }
+        return cacheManager.getCache(name);
+    }
+}
@@ -0,0 +1,62 @@
+package com.smartattend.backend.cache;
+
+import com.smartattend.backend.attendance.AttendanceChangedEvent;
+import com.smartattend.backend.attendance.MarkChange;
+import com.smartattend.backend.classes.ClassesChangedEvent;
+import com.smartattend.backend.students.StudentsChangedEvent;
+import java.util.HashSet;
+import java.util.Set;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class ResponseCacheInvalidator {
+    private final ResponseCache responseCache;
+
+    public ResponseCacheInvalidator(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        Set<Long> classIds = new HashSet<>();
+        Set<Long> studentIds = new HashSet<>();
+        for (MarkChange change : event.changes()) {
+            classIds.add(change.classId());
+            studentIds.add(change.studentId());
+        }
+        responseCache.evict(ResponseCache.DASHBOARD);
+        evictStudentReports(classIds, studentIds);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStudentsChanged(StudentsChangedEvent event) {
+        responseCache.evict(ResponseCache.DASHBOARD);
+        responseCache.evict(ResponseCache.CLASSES);
+        evictStudentReports(event.classIds(), Set.of(event.studentId()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onClassesChanged(ClassesChangedEvent event) {
+        responseCache.evict(ResponseCache.DASHBOARD);
+        responseCache.evict(ResponseCache.CLASSES);
+        responseCache.evict(ResponseCache.STUDENT_REPORTS);
+    }
+
+    @Scheduled(cron = "0 0 0 * * *")
+    public void evictAtMidnight() {
+        responseCache.evict(ResponseCache.DASHBOARD);
+    }
+
+    private void evictStudentReports(Set<Long> classIds, Set<Long> studentIds) {
+        responseCache.evictIf(ResponseCache.STUDENT_REPORTS, key -> {
+            StudentReportKey report = (StudentReportKey) key;
+            if (report.studentId() != null) {
+                return studentIds.contains(report.studentId());
+            }
+            return report.classId() == null || classIds.contains(report.classId());
+        });
+    }
+}
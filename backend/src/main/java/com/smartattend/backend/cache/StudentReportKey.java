@@ -0,0 +1,5 @@
+package com.smartattend.backend.cache;
+
+import com.smartattend.backend.attendance.DateRange;
+
+public record StudentReportKey(Long classId, Long studentId, DateRange range) {}
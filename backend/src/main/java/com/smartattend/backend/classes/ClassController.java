@@ -2,11 +2,16 @@ package com.smartattend.backend.classes;
 
 import com.smartattend.backend.auth.UserAccount;
 import com.smartattend.backend.auth.UserAccountRepository;
+import com.smartattend.backend.cache.DataVersions;
+import com.smartattend.backend.cache.ResponseCache;
 import com.smartattend.backend.students.StudentRepository;
+import com.smartattend.backend.sync.SyncChangeLog;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import java.time.Instant;
 import java.util.List;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,6 +23,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/classes")
@@ -25,18 +31,33 @@ public class ClassController {
     private final ClassRepository classRepository;
     private final StudentRepository studentRepository;
     private final UserAccountRepository userAccountRepository;
+    private final SyncChangeLog syncChangeLog;
+    private final ResponseCache responseCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DataVersions dataVersions;
 
     public ClassController(ClassRepository classRepository,
                            StudentRepository studentRepository,
-                           UserAccountRepository userAccountRepository) {
+                           UserAccountRepository userAccountRepository,
+                           SyncChangeLog syncChangeLog,
+                           ResponseCache responseCache,
+                           ApplicationEventPublisher eventPublisher,
+                           DataVersions dataVersions) {
         this.classRepository = classRepository;
         this.studentRepository = studentRepository;
         this.userAccountRepository = userAccountRepository;
+        this.syncChangeLog = syncChangeLog;
+        this.responseCache = responseCache;
+        this.eventPublisher = eventPublisher;
+        this.dataVersions = dataVersions;
     }
 
     @GetMapping
-    public List<ClassResponse> listClasses() {
-        return classRepository.findAll().stream()
+    public List<ClassResponse> listClasses(WebRequest request) {
+        if (dataVersions.notModified(request, dataVersions.school())) {
+            return null;
+        }
+        return responseCache.get(ResponseCache.CLASSES, SimpleKey.EMPTY, () -> classRepository.findAll().stream()
             .map(cls -> new ClassResponse(
                 cls.getId(),
                 cls.getName(),
@@ -44,7 +65,7 @@ public class ClassController {
                 cls.getCreatedAt(),
                 studentRepository.findByClassEntityId(cls.getId()).size()
             ))
-            .toList();
+            .toList());
     }
 
     @PostMapping
@@ -55,6 +76,8 @@ public class ClassController {
     ) {
         UserAccount createdBy = userId == null ? null : userAccountRepository.findById(userId).orElse(null);
         ClassEntity saved = classRepository.save(new ClassEntity(request.name(), request.description(), createdBy));
+        syncChangeLog.recordClass(saved.getId(), false);
+        eventPublisher.publishEvent(new ClassesChangedEvent(saved.getId()));
         return new ClassResponse(saved.getId(), saved.getName(), saved.getDescription(), saved.getCreatedAt(), 0);
     }
 
@@ -64,6 +87,8 @@ public class ClassController {
         cls.setName(request.name());
         cls.setDescription(request.description());
         ClassEntity saved = classRepository.save(cls);
+        syncChangeLog.recordClass(saved.getId(), false);
+        eventPublisher.publishEvent(new ClassesChangedEvent(saved.getId()));
         int count = studentRepository.findByClassEntityId(saved.getId()).size();
         return new ClassResponse(saved.getId(), saved.getName(), saved.getDescription(), saved.getCreatedAt(), count);
     }
@@ -72,6 +97,8 @@ public class ClassController {
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteClass(@PathVariable Long id) {
         classRepository.deleteById(id);
+        syncChangeLog.recordClass(id, true);
+        eventPublisher.publishEvent(new ClassesChangedEvent(id));
     }
 
     public record ClassRequest(
@@ -0,0 +1,3 @@
+package com.smartattend.backend.classes;
+
+public record ClassesChangedEvent(Long classId) {}
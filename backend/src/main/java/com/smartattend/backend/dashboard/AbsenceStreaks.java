@@ -0,0 +1,219 @@
+package com.smartattend.backend.dashboard;
+
+import com.smartattend.backend.attendance.AttendanceBitmapStore;
+import com.smartattend.backend.attendance.AttendanceChangedEvent;
+import com.smartattend.backend.attendance.AttendanceMark;
+import com.smartattend.backend.attendance.AttendanceRepository;
+import com.smartattend.backend.attendance.DateRange;
+import com.smartattend.backend.attendance.MarkChange;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+public class AbsenceStreaks {
+    private static final String UPSERT_SQL = """
+        INSERT INTO attendance_absence_streaks (student_id, current_streak, longest_streak, last_date)
+        VALUES (?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE current_streak = VALUES(current_streak),
+            longest_streak = VALUES(longest_streak), last_date = VALUES(last_date)
+        """;
+    private static final int[] UPSERT_TYPES = {Types.BIGINT, Types.INTEGER, Types.INTEGER, Types.DATE};
+    private static final String REBUILD_ROWS_SQL = """
+        INSERT INTO attendance_absence_streaks (student_id, current_streak, longest_streak, last_date)
+        WITH ordered AS (
+            SELECT student_id, is_present,
+                   SUM(is_present) OVER (PARTITION BY student_id ORDER BY date ROWS UNBOUNDED PRECEDING) AS presents_before
+            FROM attendance
+        ),
+        runs AS (
+            SELECT student_id, presents_before, COUNT(*) AS length
+            FROM ordered WHERE is_present = 0 GROUP BY student_id, presents_before
+        ),
+        summary AS (
+            SELECT student_id, SUM(is_present) AS presents, MAX(date) AS last_date FROM attendance GROUP BY student_id
+        )
+        SELECT s.student_id,
+               COALESCE(MAX(CASE WHEN r.presents_before = s.presents THEN r.length END), 0),
+               COALESCE(MAX(r.length), 0),
+               s.last_date
+        FROM summary s LEFT JOIN runs r ON r.student_id = s.student_id
+        GROUP BY s.student_id, s.last_date
+        """;
+    private static final String STREAKS_SQL = """
+        SELECT a.student_id, s.roll_no, s.full_name, c.name AS class_name, a.current_streak, a.longest_streak, a.last_date
+        FROM attendance_absence_streaks a
+        JOIN students s ON s.id = a.student_id
+        JOIN classes c ON c.id = s.class_id
+        WHERE a.current_streak >= ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceBitmapStore bitmapStore;
+
+    public AbsenceStreaks(JdbcTemplate jdbcTemplate,
+                          AttendanceRepository attendanceRepository,
+                          AttendanceBitmapStore bitmapStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.attendanceRepository = attendanceRepository;
+        this.bitmapStore = bitmapStore;
+    }
+
+    @EventListener
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        Map<Long, List<MarkChange>> byStudent = event.changes().stream()
+            .collect(Collectors.groupingBy(MarkChange::studentId, LinkedHashMap::new, Collectors.toList()));
+        Map<Long, Streak> streaks = lock(byStudent.keySet().stream().sorted().toList());
+        Map<Long, Streak> advanced = new LinkedHashMap<>();
+        List<Long> stale = new ArrayList<>();
+        byStudent.forEach((studentId, changes) -> {
+            Streak streak = advance(streaks.getOrDefault(studentId, Streak.NONE), changes);
+            if (streak == null) {
+                stale.add(studentId);
+            }
+            advanced.put(studentId, streak);
+        });
+        advanced.putAll(recompute(stale));
+
+        List<Object[]> rows = new ArrayList<>(advanced.size());
+        advanced.forEach((studentId, streak) -> {
+            rows.add(new Object[] {
+                studentId, streak.current(), streak.longest(), streak.lastDate() == null ? null : Date.valueOf(streak.lastDate())
+            });
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows, UPSERT_TYPES);
+        }
+    }
+
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.update("DELETE FROM attendance_absence_streaks");
+        if (!bitmapStore.isEnabled()) {
+            return jdbcTemplate.update(REBUILD_ROWS_SQL);
+        }
+        Map<Long, TreeMap<LocalDate, Boolean>> marksByStudent = new HashMap<>();
+        bitmapStore.forEachMark(mark -> marksByStudent
+            .computeIfAbsent(mark.studentId(), id -> new TreeMap<>())
+            .merge(mark.date(), mark.present(), Boolean::logicalOr));
+        List<Object[]> rows = new ArrayList<>(marksByStudent.size());
+        marksByStudent.forEach((studentId, marks) -> {
+            Streak streak = Streak.fold(marks);
+            rows.add(new Object[] {studentId, streak.current(), streak.longest(), Date.valueOf(streak.lastDate())});
+        });
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, UPSERT_TYPES);
+        return rows.size();
+    }
+
+    public List<StudentStreak> findAtLeast(int minimum, Long classId) {
+        String sql = STREAKS_SQL + (classId == null ? "" : " AND s.class_id = ?")
+            + " ORDER BY a.current_streak DESC, a.student_id";
+        Object[] args = classId == null ? new Object[] {minimum} : new Object[] {minimum, classId};
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new StudentStreak(
+            rs.getLong("student_id"),
+            rs.getString("roll_no"),
+            rs.getString("full_name"),
+            rs.getString("class_name"),
+            rs.getInt("current_streak"),
+            rs.getInt("longest_streak"),
+            rs.getDate("last_date") == null ? null : rs.getDate("last_date").toLocalDate()
+        ), args);
+    }
+
+    private Map<Long, Streak> lock(List<Long> studentIds) {
+        Map<Long, Streak> streaks = new HashMap<>();
+        if (studentIds.isEmpty()) {
+            return streaks;
+        }
+        namedJdbcTemplate.query(
+            "SELECT student_id, current_streak, longest_streak, last_date FROM attendance_absence_streaks"
+                + " WHERE student_id IN (:studentIds) FOR UPDATE",
+            new MapSqlParameterSource("studentIds", studentIds),
+            rs -> {
+                Date lastDate = rs.getDate("last_date");
+                streaks.put(rs.getLong("student_id"), new Streak(
+                    rs.getInt("current_streak"),
+                    rs.getInt("longest_streak"),
+                    lastDate == null ? null : lastDate.toLocalDate()
+                ));
+            }
+        );
+        return streaks;
+    }
+
+    private static Streak advance(Streak streak, List<MarkChange> changes) {
+        List<MarkChange> ordered = changes.stream().sorted(Comparator.comparing(MarkChange::date)).toList();
+        for (MarkChange change : ordered) {
+            boolean appended = change.previous() == null && change.current() != null
+                && (streak.lastDate() == null || change.date().isAfter(streak.lastDate()));
+            if (!appended) {
+                return null;
+            }
+            streak = streak.next(change.date(), change.current());
+        }
+        return streak;
+    }
+
+    // Folds every class the student is in, the same as rebuild(), in both storage modes.
+    private Map<Long, Streak> recompute(List<Long> studentIds) {
+        Map<Long, Streak> streaks = new HashMap<>();
+        if (studentIds.isEmpty()) {
+            return streaks;
+        }
+        Map<Long, Map<LocalDate, Boolean>> marksByStudent;
+        if (bitmapStore.isEnabled()) {
+            marksByStudent = bitmapStore.findStudentsDays(studentIds, DateRange.EARLIEST, DateRange.LATEST);
+        } else {
+            marksByStudent = new HashMap<>();
+            for (AttendanceMark mark : attendanceRepository.findStudentsMarks(studentIds, DateRange.EARLIEST, DateRange.LATEST)) {
+                marksByStudent.computeIfAbsent(mark.studentId(), id -> new TreeMap<>())
+                    .merge(mark.date(), mark.present(), Boolean::logicalOr);
+            }
+        }
+        studentIds.forEach(studentId -> streaks.put(studentId, Streak.fold(marksByStudent.getOrDefault(studentId, Map.of()))));
+        return streaks;
+    }
+
+    private record Streak(int current, int longest, LocalDate lastDate) {
+        static final Streak NONE = new Streak(0, 0, null);
+
+        static Streak fold(Map<LocalDate, Boolean> marksByDate) {
+            Streak streak = NONE;
+            for (Map.Entry<LocalDate, Boolean> mark : marksByDate.entrySet()) {
+                streak = streak.next(mark.getKey(), mark.getValue());
+            }
+            return streak;
+        }
+
+        Streak next(LocalDate date, boolean present) {
+            return present ? new Streak(0, longest, date) : new Streak(current + 1, Math.max(longest, current + 1), date);
+        }
+    }
+
+    public record StudentStreak(
+        long studentId,
+        String rollNo,
+        String fullName,
+        String className,
+        int currentStreak,
+        int longestStreak,
+        LocalDate lastDate
+    ) {}
+}
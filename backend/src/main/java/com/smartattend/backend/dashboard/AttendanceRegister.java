@@ -0,0 +1,132 @@
+package com.smartattend.backend.dashboard;
+
+import com.smartattend.backend.attendance.AttendanceBitmapStore;
+import com.smartattend.backend.attendance.AttendanceMark;
+import com.smartattend.backend.attendance.AttendanceRepository;
+import com.smartattend.backend.classes.ClassEntity;
+import com.smartattend.backend.classes.ClassRepository;
+import com.smartattend.backend.students.Student;
+import com.smartattend.backend.students.StudentRepository;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+@Component
+public class AttendanceRegister {
+    private final ClassRepository classRepository;
+    private final StudentRepository studentRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceBitmapStore bitmapStore;
+
+    public AttendanceRegister(ClassRepository classRepository,
+                              StudentRepository studentRepository,
+                              AttendanceRepository attendanceRepository,
+                              AttendanceBitmapStore bitmapStore) {
+        this.classRepository = classRepository;
+        this.studentRepository = studentRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.bitmapStore = bitmapStore;
+    }
+
+    public Register build(Long classId, YearMonth month) {
+        ClassEntity classEntity = classRepository.findById(classId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Class not found"));
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.atEndOfMonth();
+        List<AttendanceMark> marks = bitmapStore.isEnabled()
+            ? bitmapStore.findClassRange(classId, from, to)
+            : attendanceRepository.findClassMarks(classId, from, to);
+
+        List<Student> students = new ArrayList<>(studentRepository.findByClassEntityId(classId));
+        Set<Long> enrolled = students.stream().map(Student::getId).collect(Collectors.toSet());
+        Set<Long> departed = marks.stream()
+            .map(AttendanceMark::studentId)
+            .filter(studentId -> !enrolled.contains(studentId))
+            .collect(Collectors.toSet());
+        if (!departed.isEmpty()) {
+            students.addAll(studentRepository.findAllById(departed));
+        }
+        students.sort(Comparator.comparing(Student::getRollNo).thenComparing(Student::getId));
+
+        Map<Long, Integer> rowsByStudent = new HashMap<>();
+        List<Long> studentIds = new ArrayList<>(students.size());
+        for (Student student : students) {
+            rowsByStudent.put(student.getId(), studentIds.size());
+            studentIds.add(student.getId());
+        }
+
+        // Only days with a mark get a column, and a row holds one present bit per
+        // column: 60 students over 22 school days pack into 180 bytes.
+        int days = month.lengthOfMonth();
+        int schoolDays = 0;
+        for (AttendanceMark mark : marks) {
+            if (rowsByStudent.containsKey(mark.studentId())) {
+                schoolDays |= 1 << (mark.date().getDayOfMonth() - 1);
+            }
+        }
+        int columns = Integer.bitCount(schoolDays);
+        int[] columnByDay = new int[days];
+        for (int day = 0, column = 0; day < days; day++) {
+            columnByDay[day] = (schoolDays & 1 << day) != 0 ? column++ : -1;
+        }
+
+        int rowBytes = (columns + 7) / 8;
+        byte[] present = new byte[studentIds.size() * rowBytes];
+        BitSet marked = new BitSet(studentIds.size() * columns);
+        for (AttendanceMark mark : marks) {
+            Integer row = rowsByStudent.get(mark.studentId());
+            if (row == null) {
+                continue;
+            }
+            int column = columnByDay[mark.date().getDayOfMonth() - 1];
+            marked.set(row * columns + column);
+            if (mark.present()) {
+                present[row * rowBytes + column / 8] |= (byte) (1 << (column % 8));
+            }
+        }
+
+        List<int[]> unmarked = new ArrayList<>();
+        for (int row = 0; row < studentIds.size(); row++) {
+            for (int day = 0; day < days; day++) {
+                int column = columnByDay[day];
+                if (column >= 0 && !marked.get(row * columns + column)) {
+                    unmarked.add(new int[] {row, day + 1});
+                }
+            }
+        }
+        return new Register(
+            classId,
+            classEntity.getName(),
+            month.toString(),
+            days,
+            schoolDays,
+            studentIds,
+            rowBytes,
+            Base64.getEncoder().encodeToString(present),
+            unmarked
+        );
+    }
+
+    public record Register(
+        Long classId,
+        String className,
+        String month,
+        int days,
+        int schoolDays,
+        List<Long> studentIds,
+        int rowBytes,
+        String present,
+        List<int[]> unmarked
+    ) {}
+}
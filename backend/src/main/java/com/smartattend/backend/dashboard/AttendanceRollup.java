@@ -0,0 +1,92 @@
+package com.smartattend.backend.dashboard;
+
+import com.smartattend.backend.attendance.AttendanceBitmapStore;
+import com.smartattend.backend.attendance.AttendanceChangedEvent;
+import com.smartattend.backend.attendance.ClassDay;
+import com.smartattend.backend.attendance.MarkChange;
+import com.smartattend.backend.attendance.MarkCount;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+public class AttendanceRollup {
+    private static final String APPLY_SQL = """
+        INSERT INTO attendance_daily_rollup (class_id, date, present, total)
+        VALUES (?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE present = present + VALUES(present), total = total + VALUES(total)
+        """;
+    private static final String REBUILD_ROWS_SQL = """
+        INSERT INTO attendance_daily_rollup (class_id, date, present, total)
+        SELECT class_id, date, SUM(is_present), COUNT(*) FROM attendance GROUP BY class_id, date
+        """;
+    private static final String REBUILD_BITMAP_SQL = """
+        INSERT INTO attendance_daily_rollup (class_id, date, present, total)
+        SELECT class_id, date, BIT_COUNT(present), BIT_COUNT(marked) FROM attendance_bitmap
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AttendanceBitmapStore bitmapStore;
+
+    public AttendanceRollup(JdbcTemplate jdbcTemplate, AttendanceBitmapStore bitmapStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bitmapStore = bitmapStore;
+    }
+
+    @EventListener
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        Map<ClassDay, int[]> deltas = new LinkedHashMap<>();
+        for (MarkChange change : event.changes()) {
+            int[] delta = deltas.computeIfAbsent(new ClassDay(change.classId(), change.date()), key -> new int[2]);
+            delta[0] += change.presentDelta();
+            delta[1] += change.totalDelta();
+        }
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((classDay, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                rows.add(new Object[] {classDay.classId(), Date.valueOf(classDay.date()), delta[0], delta[1]});
+            }
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPLY_SQL, rows, new int[] {Types.BIGINT, Types.DATE, Types.INTEGER, Types.INTEGER});
+        }
+    }
+
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.update("DELETE FROM attendance_daily_rollup");
+        return jdbcTemplate.update(bitmapStore.isEnabled() ? REBUILD_BITMAP_SQL : REBUILD_ROWS_SQL);
+    }
+
+    public MarkCount count(LocalDate from, LocalDate to) {
+        return jdbcTemplate.queryForObject(
+            "SELECT SUM(present), SUM(total) FROM attendance_daily_rollup WHERE date BETWEEN ? AND ?",
+            (rs, rowNum) -> new MarkCount(rs.getLong(1), rs.getLong(2)),
+            Date.valueOf(from),
+            Date.valueOf(to)
+        );
+    }
+
+    public Map<Long, MarkCount> countByClass(LocalDate from, LocalDate to) {
+        Map<Long, MarkCount> counts = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT class_id, SUM(present) AS present, SUM(total) AS total FROM attendance_daily_rollup"
+                + " WHERE date BETWEEN ? AND ? GROUP BY class_id",
+            rs -> {
+                counts.put(rs.getLong("class_id"), new MarkCount(rs.getLong("present"), rs.getLong("total")));
+            },
+            Date.valueOf(from),
+            Date.valueOf(to)
+        );
+        return counts;
+    }
+}
@@ -0,0 +1,107 @@
+package com.smartattend.backend.dashboard;
+
+import com.smartattend.backend.attendance.AttendanceBitmapStore;
+import com.smartattend.backend.attendance.AttendanceRepository;
+import com.smartattend.backend.attendance.MarkCount;
+import com.smartattend.backend.students.Student;
+import com.smartattend.backend.students.StudentRepository;
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AttendanceTrends {
+    private final JdbcTemplate jdbcTemplate;
+    private final StudentRepository studentRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceBitmapStore bitmapStore;
+
+    public AttendanceTrends(JdbcTemplate jdbcTemplate,
+                            StudentRepository studentRepository,
+                            AttendanceRepository attendanceRepository,
+                            AttendanceBitmapStore bitmapStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.studentRepository = studentRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.bitmapStore = bitmapStore;
+    }
+
+    public List<TrendPoint> school(Granularity granularity, LocalDate from, LocalDate to) {
+        Map<LocalDate, MarkCount> buckets = new TreeMap<>();
+        jdbcTemplate.query(
+            "SELECT date, SUM(present) AS present, SUM(total) AS total FROM attendance_daily_rollup"
+                + " WHERE date BETWEEN ? AND ? GROUP BY date",
+            rs -> {
+                add(buckets, granularity, rs.getDate("date").toLocalDate(), rs.getLong("present"), rs.getLong("total"));
+            },
+            Date.valueOf(from),
+            Date.valueOf(to)
+        );
+        return toPoints(buckets);
+    }
+
+    public List<TrendPoint> forClass(Long classId, Granularity granularity, LocalDate from, LocalDate to) {
+        Map<LocalDate, MarkCount> buckets = new TreeMap<>();
+        jdbcTemplate.query(
+            "SELECT date, present, total FROM attendance_daily_rollup WHERE class_id = ? AND date BETWEEN ? AND ?",
+            rs -> {
+                add(buckets, granularity, rs.getDate("date").toLocalDate(), rs.getLong("present"), rs.getLong("total"));
+            },
+            classId,
+            Date.valueOf(from),
+            Date.valueOf(to)
+        );
+        return toPoints(buckets);
+    }
+
+    public List<TrendPoint> forStudent(Long studentId, Granularity granularity, LocalDate from, LocalDate to) {
+        Student student = studentRepository.findById(studentId).orElseThrow();
+        Map<LocalDate, MarkCount> buckets = new TreeMap<>();
+        if (bitmapStore.isEnabled()) {
+            bitmapStore.findStudentDays(student.getClassEntity().getId(), studentId, from, to)
+                .forEach((date, present) -> add(buckets, granularity, date, present ? 1 : 0, 1));
+            return toPoints(buckets);
+        }
+        attendanceRepository.findStudentMarks(studentId, from, to)
+            .forEach(mark -> add(buckets, granularity, mark.date(), mark.present() ? 1 : 0, 1));
+        return toPoints(buckets);
+    }
+
+    private static void add(Map<LocalDate, MarkCount> buckets, Granularity granularity,
+                            LocalDate date, long present, long total) {
+        buckets.merge(granularity.bucket(date), new MarkCount(present, total), MarkCount::plus);
+    }
+
+    private static List<TrendPoint> toPoints(Map<LocalDate, MarkCount> buckets) {
+        return buckets.entrySet().stream()
+            .map(entry -> new TrendPoint(
+                entry.getKey().toString(),
+                entry.getValue().present(),
+                entry.getValue().total(),
+                entry.getValue().percentage()
+            ))
+            .toList();
+    }
+
+    public enum Granularity {
+        DAY,
+        WEEK,
+        MONTH;
+
+        private LocalDate bucket(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> date.withDayOfMonth(1);
+            };
+        }
+    }
+
+    public record TrendPoint(String period, long present, long total, int percentage) {}
+}
@@ -0,0 +1,204 @@
+package com.smartattend.backend.dashboard;
+
+import com.smartattend.backend.attendance.AttendanceChangedEvent;
+import com.smartattend.backend.attendance.MarkChange;
+import com.smartattend.backend.attendance.MarkCount;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ClassLeaderboard {
+    private static final Comparator<Standing> BY_PERCENTAGE = (left, right) -> {
+        int byRatio = Long.compare(right.present() * left.total(), left.present() * right.total());
+        return byRatio != 0 ? byRatio : Long.compare(left.classId(), right.classId());
+    };
+
+    private final AttendanceRollup attendanceRollup;
+    private final CommitGate commitGate;
+    private final String termStart;
+    private final ReentrantLock reseedLock = new ReentrantLock();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Rankings rankings = new Rankings(LocalDate.MIN, new EnumMap<>(Window.class));
+
+    public ClassLeaderboard(AttendanceRollup attendanceRollup,
+                            CommitGate commitGate,
+                            @Value("${smartattend.dashboard.term-start:}") String termStart) {
+        this.attendanceRollup = attendanceRollup;
+        this.commitGate = commitGate;
+        this.termStart = termStart;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        reseed();
+    }
+
+    @Scheduled(cron = "0 0 0 * * *")
+    public void shiftAtMidnight() {
+        reseed();
+    }
+
+    public void reseed() {
+        reseedLock.lock();
+        try {
+            commitGate.reseed(() -> {
+                LocalDate today = LocalDate.now();
+                Map<Window, Ranking> byWindow = new EnumMap<>(Window.class);
+                for (Window window : Window.values()) {
+                    Ranking ranking = new Ranking(window.start(today, termStart()));
+                    attendanceRollup.countByClass(ranking.start, today).forEach(ranking::add);
+                    byWindow.put(window, ranking);
+                }
+                rankings = new Rankings(today, byWindow);
+            });
+        } finally {
+            reseedLock.unlock();
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        Map<Long, Map<LocalDate, MarkCount>> deltas = new HashMap<>();
+        for (MarkChange change : event.changes()) {
+            deltas.computeIfAbsent(change.classId(), key -> new HashMap<>())
+                .merge(change.date(), new MarkCount(change.presentDelta(), change.totalDelta()), MarkCount::plus);
+        }
+        commitGate.afterCommit(() -> rankings, target -> apply(target, deltas));
+    }
+
+    private void apply(Rankings target, Map<Long, Map<LocalDate, MarkCount>> deltas) {
+        lock.lock();
+        try {
+            target.byWindow().values().forEach(ranking -> deltas.forEach((classId, byDate) -> {
+                MarkCount delta = MarkCount.EMPTY;
+                for (Map.Entry<LocalDate, MarkCount> entry : byDate.entrySet()) {
+                    if (!entry.getKey().isBefore(ranking.start) && !entry.getKey().isAfter(target.date())) {
+                        delta = delta.plus(entry.getValue());
+                    }
+                }
+                if (delta.present() != 0 || delta.total() != 0) {
+                    ranking.add(classId, delta);
+                }
+            }));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<Standing> top(Window window, int limit) {
+        return collect(window, limit, false);
+    }
+
+    public List<Standing> bottom(Window window, int limit) {
+        return collect(window, limit, true);
+    }
+
+    public static List<Standing> rank(Map<Long, MarkCount> counts, int limit) {
+        return counts.entrySet().stream()
+            .filter(entry -> entry.getValue().total() > 0)
+            .map(entry -> new Standing(
+                entry.getKey(),
+                entry.getValue().present(),
+                entry.getValue().total(),
+                entry.getValue().percentage()
+            ))
+            .sorted(BY_PERCENTAGE)
+            .limit(limit)
+            .toList();
+    }
+
+    private List<Standing> collect(Window window, int limit, boolean reverse) {
+        Rankings current = currentRankings();
+        lock.lock();
+        try {
+            Ranking ranking = current.byWindow().get(window);
+            List<Standing> standings = new ArrayList<>(limit);
+            Iterator<Standing> iterator = reverse ? ranking.ordered.descendingIterator() : ranking.ordered.iterator();
+            while (iterator.hasNext() && standings.size() < limit) {
+                standings.add(iterator.next());
+            }
+            return standings;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Rankings currentRankings() {
+        Rankings current = rankings;
+        if (!current.date().equals(LocalDate.now())) {
+            reseedLock.lock();
+            try {
+                if (!rankings.date().equals(LocalDate.now())) {
+                    reseed();
+                }
+                current = rankings;
+            } finally {
+                reseedLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    private LocalDate termStart() {
+        return termStart.isBlank() ? LocalDate.now().withDayOfYear(1) : LocalDate.parse(termStart);
+    }
+
+    private static final class Ranking {
+        private final LocalDate start;
+        private final Map<Long, Standing> byClass = new HashMap<>();
+        private final NavigableSet<Standing> ordered = new TreeSet<>(BY_PERCENTAGE);
+
+        private Ranking(LocalDate start) {
+            this.start = start;
+        }
+
+        private void add(Long classId, MarkCount delta) {
+            Standing previous = byClass.remove(classId);
+            MarkCount count = delta;
+            if (previous != null) {
+                ordered.remove(previous);
+                count = count.plus(new MarkCount(previous.present(), previous.total()));
+            }
+            if (count.total() > 0) {
+                Standing standing = new Standing(classId, count.present(), count.total(), count.percentage());
+                byClass.put(classId, standing);
+                ordered.add(standing);
+            }
+        }
+    }
+
+    public enum Window {
+        TODAY,
+        WEEK,
+        TERM;
+
+        private LocalDate start(LocalDate today, LocalDate termStart) {
+            return switch (this) {
+                case TODAY -> today;
+                case WEEK -> today.minusDays(6);
+                case TERM -> termStart;
+            };
+        }
+    }
+
+    private record Rankings(LocalDate date, Map<Window, Ranking> byWindow) {}
+
+    public record Standing(long classId, long present, long total, int percentage) {}
+}
@@ -0,0 +1,86 @@
+package com.smartattend.backend.dashboard;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps in-memory views seeded from attendance_daily_rollup in step with the
+ * transactions writing it. A change is applied to the view that was current when
+ * its transaction reached commit, and a reseed holds commits back while it reads
+ * the rollup and swaps the view in, so each change is either in the seed query or
+ * applied to the new view, never both and never neither.
+ */
+@Component
+public class CommitGate {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TransactionTemplate transactionTemplate;
+
+    public CommitGate(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public <V> void afterCommit(Supplier<V> view, Consumer<V> apply) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply.accept(view.get());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private V target;
+            private boolean held;
+
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                lock.readLock().lock();
+                held = true;
+                target = view.get();
+            }
+
+            @Override
+            public void afterCommit() {
+                try {
+                    apply.accept(target);
+                } finally {
+                    release();
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                release();
+            }
+
+            private void release() {
+                if (held) {
+                    held = false;
+                    lock.readLock().unlock();
+                }
+            }
+        });
+    }
+
+    public void reseed(Runnable seed) {
+        // The transaction binds its connection before commits are held back, so a
+        // pool drained by waiting writers cannot starve the seed query.
+        transactionTemplate.executeWithoutResult(status -> {
+            lock.writeLock().lock();
+            try {
+                seed.run();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+}
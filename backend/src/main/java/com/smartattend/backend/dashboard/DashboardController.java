@@ -1,64 +1,172 @@
 package com.smartattend.backend.dashboard;
 
-import com.smartattend.backend.attendance.AttendanceRecord;
-import com.smartattend.backend.attendance.AttendanceRepository;
+import com.smartattend.backend.analytics.ColumnarAttendanceStore;
+import com.smartattend.backend.attendance.DateRange;
+import com.smartattend.backend.attendance.MarkCount;
+import com.smartattend.backend.cache.DataVersions;
+import com.smartattend.backend.cache.ResponseCache;
 import com.smartattend.backend.classes.ClassEntity;
 import com.smartattend.backend.classes.ClassRepository;
+import com.smartattend.backend.dashboard.ClassLeaderboard.Standing;
+import com.smartattend.backend.dashboard.ClassLeaderboard.Window;
 import com.smartattend.backend.students.StudentRepository;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/dashboard")
 public class DashboardController {
+    private static final int MAX_LEADERBOARD_LIMIT = 100;
+
     private final ClassRepository classRepository;
     private final StudentRepository studentRepository;
-    private final AttendanceRepository attendanceRepository;
+    private final AttendanceRollup attendanceRollup;
+    private final LiveAttendanceCounters liveCounters;
+    private final ResponseCache responseCache;
+    private final DashboardStream dashboardStream;
+    private final ClassLeaderboard classLeaderboard;
+    private final ObjectProvider<ColumnarAttendanceStore> columnarStoreProvider;
+    private final StudentAttendanceTotals studentTotals;
+    private final AbsenceStreaks absenceStreaks;
+    private final DataVersions dataVersions;
 
     public DashboardController(ClassRepository classRepository,
                                StudentRepository studentRepository,
-                               AttendanceRepository attendanceRepository) {
+                               AttendanceRollup attendanceRollup,
+                               LiveAttendanceCounters liveCounters,
+                               ResponseCache responseCache,
+                               DashboardStream dashboardStream,
+                               ClassLeaderboard classLeaderboard,
+                               ObjectProvider<ColumnarAttendanceStore> columnarStoreProvider,
+                               StudentAttendanceTotals studentTotals,
+                               AbsenceStreaks absenceStreaks,
+                               DataVersions dataVersions) {
         this.classRepository = classRepository;
         this.studentRepository = studentRepository;
-        this.attendanceRepository = attendanceRepository;
+        this.attendanceRollup = attendanceRollup;
+        this.liveCounters = liveCounters;
+        this.responseCache = responseCache;
+        this.dashboardStream = dashboardStream;
+        this.classLeaderboard = classLeaderboard;
+        this.columnarStoreProvider = columnarStoreProvider;
+        this.studentTotals = studentTotals;
+        this.absenceStreaks = absenceStreaks;
+        this.dataVersions = dataVersions;
     }
 
     @GetMapping
-    public DashboardResponse getDashboard() {
+    public DashboardResponse getDashboard(
+        @RequestParam(required = false) String from,
+        @RequestParam(required = false) String to,
+        WebRequest request
+    ) {
+        DateRange range = DateRange.parse(from, to);
+        if (dataVersions.notModified(request, dataVersions.school(LocalDate.now()))) {
+            return null;
+        }
+        return responseCache.get(ResponseCache.DASHBOARD, range, () -> buildDashboard(range));
+    }
+
+    private DashboardResponse buildDashboard(DateRange range) {
         long totalClasses = classRepository.count();
         long totalStudents = studentRepository.count();
 
-        LocalDate today = LocalDate.now();
-        List<AttendanceRecord> todayRecords = attendanceRepository.findByDate(today);
-        long todayPresent = todayRecords.stream().filter(AttendanceRecord::isPresent).count();
-        long todayTotal = todayRecords.size();
-        int todayPercentage = todayTotal == 0 ? 0 : Math.toIntExact(Math.round((todayPresent * 100.0) / todayTotal));
-
-        List<AttendanceRecord> allRecords = attendanceRepository.findAll();
-        long overallPresent = allRecords.stream().filter(AttendanceRecord::isPresent).count();
-        long overallTotal = allRecords.size();
-        int overallPercentage = overallTotal == 0 ? 0 : Math.toIntExact(Math.round((overallPresent * 100.0) / overallTotal));
-
-        List<ClassSummary> summaries = classRepository.findAll().stream().limit(5).map(cls -> {
-            List<AttendanceRecord> classRecords = attendanceRepository.findByClassEntityId(cls.getId());
-            long present = classRecords.stream().filter(AttendanceRecord::isPresent).count();
-            long total = classRecords.size();
-            int percentage = total == 0 ? 0 : Math.toIntExact(Math.round((present * 100.0) / total));
-            return new ClassSummary(cls.getId(), cls.getName(), present, total, percentage);
-        }).toList();
+        MarkCount todayCount = liveCounters.today();
+        ColumnarAttendanceStore columnarStore = columnarStoreProvider.getIfAvailable();
+        boolean columnar = columnarStore != null && columnarStore.isReady();
+        MarkCount overallCount = columnar
+            ? columnarStore.count(range)
+            : attendanceRollup.count(range.from(), range.to());
+
+        // Ranked over the same period as overallAttendance; the in-memory leaderboard
+        // only covers today, the week and the term.
+        Map<Long, MarkCount> classCounts = columnar
+            ? columnarStore.countByClass(range)
+            : attendanceRollup.countByClass(range.from(), range.to());
+        List<ClassSummary> summaries = toSummaries(ClassLeaderboard.rank(classCounts, 5));
 
         return new DashboardResponse(
             totalStudents,
             totalClasses,
-            todayPercentage,
-            overallPercentage,
+            todayCount.percentage(),
+            overallCount.percentage(),
             summaries
         );
     }
 
+    @GetMapping("/leaderboard")
+    public LeaderboardResponse leaderboard(
+        @RequestParam(defaultValue = "term") String window,
+        @RequestParam(defaultValue = "5") int limit,
+        WebRequest request
+    ) {
+        if (limit < 1 || limit > MAX_LEADERBOARD_LIMIT) {
+            throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LEADERBOARD_LIMIT
+            );
+        }
+        Window parsedWindow;
+        try {
+            parsedWindow = Window.valueOf(window.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "window must be today, week or term");
+        }
+        if (dataVersions.notModified(request, dataVersions.school(LocalDate.now()))) {
+            return null;
+        }
+        return new LeaderboardResponse(
+            parsedWindow.name().toLowerCase(Locale.ROOT),
+            toSummaries(classLeaderboard.top(parsedWindow, limit)),
+            toSummaries(classLeaderboard.bottom(parsedWindow, limit))
+        );
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return dashboardStream.subscribe();
+    }
+
+    @PostMapping("/rollup/rebuild")
+    public RollupRebuildResponse rebuildRollup() {
+        int classDays = attendanceRollup.rebuild();
+        int studentClasses = studentTotals.rebuild();
+        int streaks = absenceStreaks.rebuild();
+        dataVersions.invalidateAll();
+        liveCounters.reseed();
+        classLeaderboard.reseed();
+        responseCache.evict(ResponseCache.DASHBOARD);
+        return new RollupRebuildResponse(classDays, studentClasses, streaks);
+    }
+
+    private List<ClassSummary> toSummaries(List<Standing> standings) {
+        Map<Long, String> names = classRepository.findAllById(standings.stream().map(Standing::classId).toList()).stream()
+            .collect(Collectors.toMap(ClassEntity::getId, ClassEntity::getName));
+        return standings.stream()
+            .filter(standing -> names.containsKey(standing.classId()))
+            .map(standing -> new ClassSummary(
+                standing.classId(),
+                names.get(standing.classId()),
+                standing.present(),
+                standing.total(),
+                standing.percentage()
+            ))
+            .toList();
+    }
+
     public record DashboardResponse(
         long totalStudents,
         long totalClasses,
@@ -74,4 +182,8 @@ public class DashboardController {
         long total,
         int percentage
     ) {}
+
+    public record LeaderboardResponse(String window, List<ClassSummary> top, List<ClassSummary> bottom) {}
+
+    public record RollupRebuildResponse(int classDays, int studentClasses, int streaks) {}
 }
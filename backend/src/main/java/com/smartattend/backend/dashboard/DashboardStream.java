@@ -0,0 +1,166 @@
+package com.smartattend.backend.dashboard;
+
+import com.smartattend.backend.attendance.AttendanceChangedEvent;
+import com.smartattend.backend.attendance.MarkChange;
+import com.smartattend.backend.attendance.MarkCount;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Component
+public class DashboardStream {
+    private final LiveAttendanceCounters liveCounters;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    public DashboardStream(LiveAttendanceCounters liveCounters,
+                           @Value("${smartattend.dashboard.stream-timeout:PT30M}") Duration timeout,
+                           @Value("${smartattend.dashboard.stream-workers:4}") int workers,
+                           @Value("${smartattend.dashboard.stream-queue-capacity:1000}") int queueCapacity,
+                           MeterRegistry meterRegistry) {
+        this.liveCounters = liveCounters;
+        this.timeout = timeout;
+        // Sends block on slow clients, so they get their own threads rather than the
+        // pool that runs MVC async requests and streamed exports.
+        this.executor = new ThreadPoolExecutor(
+            workers,
+            workers,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("dashboard-stream-")
+        );
+        Gauge.builder("dashboard.stream.subscribers", subscribers, List::size)
+            .description("Open dashboard SSE connections")
+            .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        Map<Long, MarkCount> byClass = liveCounters.todayByClass();
+        subscriber.offer("snapshot", toDelta(byClass.keySet(), byClass));
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        LocalDate today = LocalDate.now();
+        Set<Long> classIds = new TreeSet<>();
+        for (MarkChange change : event.changes()) {
+            if (today.equals(change.date())) {
+                classIds.add(change.classId());
+            }
+        }
+        if (classIds.isEmpty() || subscribers.isEmpty()) {
+            return;
+        }
+        DashboardDelta delta = toDelta(classIds, liveCounters.todayByClass());
+        subscribers.forEach(subscriber -> subscriber.offer("delta", delta));
+    }
+
+    private DashboardDelta toDelta(Set<Long> classIds, Map<Long, MarkCount> byClass) {
+        MarkCount today = byClass.values().stream().reduce(MarkCount.EMPTY, MarkCount::plus);
+        List<ClassToday> classes = classIds.stream().map(classId -> {
+            MarkCount count = byClass.getOrDefault(classId, MarkCount.EMPTY);
+            return new ClassToday(classId, count.present(), count.total(), count.percentage());
+        }).toList();
+        return new DashboardDelta(today.present(), today.total(), today.percentage(), classes);
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Map<Long, ClassToday> pendingClasses = new LinkedHashMap<>();
+        private DashboardDelta pendingTotals;
+        private String pendingName;
+        private boolean sending;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(String name, DashboardDelta delta) {
+            synchronized (this) {
+                delta.classes().forEach(update -> pendingClasses.put(update.classId(), update));
+                pendingTotals = delta;
+                if (pendingName == null) {
+                    pendingName = name;
+                }
+                if (sending) {
+                    return;
+                }
+                sending = true;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException ex) {
+                // Every sender is stuck; the client reconnects and starts from a snapshot.
+                subscribers.remove(this);
+                emitter.completeWithError(ex);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                String name;
+                DashboardDelta delta;
+                synchronized (this) {
+                    if (pendingTotals == null) {
+                        sending = false;
+                        return;
+                    }
+                    name = pendingName;
+                    delta = new DashboardDelta(
+                        pendingTotals.todayPresent(),
+                        pendingTotals.todayTotal(),
+                        pendingTotals.todayAttendance(),
+                        List.copyOf(pendingClasses.values())
+                    );
+                    pendingClasses.clear();
+                    pendingTotals = null;
+                    pendingName = null;
+                }
+                try {
+                    emitter.send(SseEmitter.event().name(name).data(delta));
+                } catch (IOException | IllegalStateException ex) {
+                    subscribers.remove(this);
+                    emitter.completeWithError(ex);
+                    return;
+                }
+            }
+        }
+    }
+
+    public record DashboardDelta(long todayPresent, long todayTotal, int todayAttendance, List<ClassToday> classes) {}
+
+    public record ClassToday(Long classId, long present, long total, int percentage) {}
+}
@@ -0,0 +1,131 @@
+package com.smartattend.backend.dashboard;
+
+import com.smartattend.backend.attendance.AttendanceChangedEvent;
+import com.smartattend.backend.attendance.MarkChange;
+import com.smartattend.backend.attendance.MarkCount;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LiveAttendanceCounters {
+    private final JdbcTemplate jdbcTemplate;
+    private final CommitGate commitGate;
+    private final ReentrantLock reseedLock = new ReentrantLock();
+    private volatile Day day = new Day(LocalDate.MIN);
+
+    public LiveAttendanceCounters(JdbcTemplate jdbcTemplate, CommitGate commitGate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.commitGate = commitGate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        reseed();
+    }
+
+    @Scheduled(cron = "0 0 0 * * *")
+    public void resetAtMidnight() {
+        reseed();
+    }
+
+    public void reseed() {
+        reseedLock.lock();
+        try {
+            commitGate.reseed(() -> {
+                Day next = new Day(LocalDate.now());
+                jdbcTemplate.query(
+                    "SELECT class_id, present, total FROM attendance_daily_rollup WHERE date = ?",
+                    rs -> {
+                        ClassCounter counter = next.counter(rs.getLong("class_id"));
+                        counter.present.add(rs.getLong("present"));
+                        counter.total.add(rs.getLong("total"));
+                    },
+                    Date.valueOf(next.date)
+                );
+                day = next;
+            });
+        } finally {
+            reseedLock.unlock();
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        commitGate.afterCommit(() -> day, target -> apply(target, event));
+    }
+
+    private static void apply(Day target, AttendanceChangedEvent event) {
+        for (MarkChange change : event.changes()) {
+            if (target.date.equals(change.date())) {
+                ClassCounter counter = target.counter(change.classId());
+                counter.present.add(change.presentDelta());
+                counter.total.add(change.totalDelta());
+            }
+        }
+    }
+
+    public MarkCount today() {
+        Day current = currentDay();
+        long present = 0;
+        long total = 0;
+        for (ClassCounter counter : current.counters.values()) {
+            present += counter.present.sum();
+            total += counter.total.sum();
+        }
+        return new MarkCount(present, total);
+    }
+
+    public Map<Long, MarkCount> todayByClass() {
+        Map<Long, MarkCount> counts = new HashMap<>();
+        currentDay().counters.forEach((classId, counter) ->
+            counts.put(classId, new MarkCount(counter.present.sum(), counter.total.sum())));
+        return counts;
+    }
+
+    private Day currentDay() {
+        Day current = day;
+        if (!current.date.equals(LocalDate.now())) {
+            reseedLock.lock();
+            try {
+                if (!day.date.equals(LocalDate.now())) {
+                    reseed();
+                }
+                current = day;
+            } finally {
+                reseedLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    private static final class Day {
+        private final LocalDate date;
+        private final Map<Long, ClassCounter> counters = new ConcurrentHashMap<>();
+
+        private Day(LocalDate date) {
+            this.date = date;
+        }
+
+        private ClassCounter counter(Long classId) {
+            return counters.computeIfAbsent(classId, key -> new ClassCounter());
+        }
+    }
+
+    private static final class ClassCounter {
+        private final LongAdder present = new LongAdder();
+        private final LongAdder total = new LongAdder();
+    }
+}
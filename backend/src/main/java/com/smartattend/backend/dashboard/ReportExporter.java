@@ -0,0 +1,158 @@
+package com.smartattend.backend.dashboard;
+
+import com.smartattend.backend.attendance.AttendanceBitmapStore;
+import com.smartattend.backend.attendance.AttendanceMark;
+import com.smartattend.backend.attendance.DateRange;
+import com.smartattend.backend.attendance.MarkCount;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ReportExporter {
+    private static final Object[] STUDENT_HEADER = {
+        "Student ID", "Roll No", "Full Name", "Class", "Total Days", "Present Days", "Absent Days", "Percentage"
+    };
+    private static final Object[] DATE_HEADER = {"Student ID", "Roll No", "Full Name", "Present", "Class", "Date"};
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final AttendanceBitmapStore bitmapStore;
+
+    public ReportExporter(DataSource dataSource, AttendanceBitmapStore bitmapStore) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.bitmapStore = bitmapStore;
+    }
+
+    public void exportStudents(Long classId, Long studentId, DateRange range, ReportWriter writer) throws IOException {
+        writer.row(STUDENT_HEADER);
+        StringBuilder sql = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        if (bitmapStore.isEnabled()) {
+            sql.append("SELECT s.id, s.roll_no, s.full_name, s.class_id, c.name AS class_name")
+                .append(" FROM students s JOIN classes c ON c.id = s.class_id");
+        } else {
+            sql.append("SELECT s.id, s.roll_no, s.full_name, s.class_id, c.name AS class_name,")
+                .append(" COUNT(a.id) AS total, COALESCE(SUM(a.is_present), 0) AS present")
+                .append(" FROM students s JOIN classes c ON c.id = s.class_id")
+                .append(" LEFT JOIN attendance a ON a.student_id = s.id AND a.class_id = s.class_id")
+                .append(" AND a.date BETWEEN ? AND ?");
+            args.add(Date.valueOf(range.from()));
+            args.add(Date.valueOf(range.to()));
+        }
+        if (studentId != null) {
+            sql.append(" WHERE s.id = ?");
+            args.add(studentId);
+        } else if (classId != null) {
+            sql.append(" WHERE s.class_id = ?");
+            args.add(classId);
+        }
+        if (bitmapStore.isEnabled()) {
+            sql.append(" ORDER BY s.class_id, s.id");
+        } else {
+            sql.append(" GROUP BY s.id, s.roll_no, s.full_name, s.class_id, c.name ORDER BY s.id");
+        }
+
+        BitmapCounts bitmapCounts = new BitmapCounts(range);
+        try {
+            streamingJdbcTemplate.query(sql.toString(), rs -> {
+                long id = rs.getLong("id");
+                MarkCount count;
+                if (bitmapStore.isEnabled()) {
+                    count = bitmapCounts.get(rs.getLong("class_id"), id);
+                } else {
+                    count = new MarkCount(rs.getLong("present"), rs.getLong("total"));
+                }
+                try {
+                    writer.row(
+                        id,
+                        rs.getString("roll_no"),
+                        rs.getString("full_name"),
+                        rs.getString("class_name"),
+                        count.total(),
+                        count.present(),
+                        count.absent(),
+                        count.percentage()
+                    );
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }, args.toArray());
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    public void exportDates(Long classId, DateRange range, ReportWriter writer) throws IOException {
+        writer.row(DATE_HEADER);
+        if (bitmapStore.isEnabled()) {
+            String className = streamingJdbcTemplate.queryForObject("SELECT name FROM classes WHERE id = ?", String.class, classId);
+            Map<Long, Object[]> students = new HashMap<>();
+            streamingJdbcTemplate.query(
+                "SELECT s.id, s.roll_no, s.full_name FROM class_roster r JOIN students s ON s.id = r.student_id WHERE r.class_id = ?",
+                rs -> {
+                    students.put(rs.getLong("id"), new Object[] {rs.getString("roll_no"), rs.getString("full_name")});
+                },
+                classId
+            );
+            for (AttendanceMark mark : bitmapStore.findClassRange(classId, range.from(), range.to())) {
+                Object[] student = students.get(mark.studentId());
+                if (student != null) {
+                    writer.row(mark.studentId(), student[0], student[1], mark.present(), className, mark.date());
+                }
+            }
+            return;
+        }
+        try {
+            streamingJdbcTemplate.query(
+                "SELECT s.id, s.roll_no, s.full_name, a.is_present, c.name AS class_name, a.date"
+                    + " FROM attendance a JOIN students s ON s.id = a.student_id JOIN classes c ON c.id = a.class_id"
+                    + " WHERE a.class_id = ? AND a.date BETWEEN ? AND ? ORDER BY a.date, s.id",
+                rs -> {
+                    try {
+                        writer.row(
+                            rs.getLong("id"),
+                            rs.getString("roll_no"),
+                            rs.getString("full_name"),
+                            rs.getBoolean("is_present"),
+                            rs.getString("class_name"),
+                            rs.getDate("date").toLocalDate()
+                        );
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                },
+                classId,
+                Date.valueOf(range.from()),
+                Date.valueOf(range.to())
+            );
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private final class BitmapCounts {
+        private final DateRange range;
+        private long classId = -1;
+        private Map<Long, MarkCount> counts = Map.of();
+
+        private BitmapCounts(DateRange range) {
+            this.range = range;
+        }
+
+        private MarkCount get(long rowClassId, long studentId) {
+            if (rowClassId != classId) {
+                classId = rowClassId;
+                counts = bitmapStore.countByStudent(rowClassId, range.from(), range.to());
+            }
+            return counts.getOrDefault(studentId, MarkCount.EMPTY);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.smartattend.backend.dashboard;
+
+import com.smartattend.backend.attendance.DateRange;
+import com.smartattend.backend.dashboard.ReportJobs.ReportJob;
+import com.smartattend.backend.dashboard.ReportJobs.ReportSpec;
+import com.smartattend.backend.dashboard.ReportJobs.Status;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/reports/jobs")
+public class ReportJobController {
+    private static final MediaType XLSX =
+        MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final ReportJobs reportJobs;
+
+    public ReportJobController(ReportJobs reportJobs) {
+        this.reportJobs = reportJobs;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReportJobResponse> submit(@Valid @RequestBody ReportJobRequest request) {
+        String type = request.type().toLowerCase(Locale.ROOT);
+        if (!type.equals("student") && !type.equals("date")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported report type " + request.type());
+        }
+        if (type.equals("date") && request.classId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "classId is required for date reports");
+        }
+        String format = "xlsx".equalsIgnoreCase(request.format()) ? "xlsx" : "csv";
+        ReportJob job = reportJobs.submit(new ReportSpec(
+            type, format, request.classId(), request.studentId(), DateRange.parse(request.from(), request.to())
+        ));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ReportJobResponse.from(job));
+    }
+
+    @GetMapping("/{id}")
+    public ReportJobResponse status(@PathVariable String id) {
+        return ReportJobResponse.from(reportJobs.find(id));
+    }
+
+    @GetMapping("/{id}/result")
+    public ResponseEntity<StreamingResponseBody> result(
+        @PathVariable String id,
+        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) throws IOException {
+        ReportJob job = reportJobs.find(id);
+        if (job.getStatus() != Status.DONE) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Report job " + id + " is " + job.getStatus());
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        InputStream result;
+        try {
+            result = Files.newInputStream(job.getResult());
+        } catch (NoSuchFileException ex) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Report job " + id + " result was superseded, submit it again");
+        }
+        StreamingResponseBody body = out -> {
+            try (InputStream in = gzip ? result : new GZIPInputStream(result)) {
+                in.transferTo(out);
+            }
+        };
+        boolean xlsx = job.getSpec().format().equals("xlsx");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(xlsx ? XLSX : new MediaType("text", "csv", StandardCharsets.UTF_8))
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(job.getSpec().type() + "-report." + job.getSpec().format())
+                .build()
+                .toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    public record ReportJobRequest(
+        @NotBlank String type,
+        String format,
+        Long classId,
+        Long studentId,
+        String from,
+        String to
+    ) {}
+
+    public record ReportJobResponse(
+        String id,
+        String type,
+        String format,
+        Long classId,
+        Long studentId,
+        String from,
+        String to,
+        Status status,
+        long rows,
+        Instant submittedAt,
+        Instant finishedAt,
+        String error
+    ) {
+        public static ReportJobResponse from(ReportJob job) {
+            return new ReportJobResponse(
+                job.getId(),
+                job.getSpec().type(),
+                job.getSpec().format(),
+                job.getSpec().classId(),
+                job.getSpec().studentId(),
+                job.getSpec().range().from().toString(),
+                job.getSpec().range().to().toString(),
+                job.getStatus(),
+                job.getRows(),
+                job.getSubmittedAt(),
+                job.getFinishedAt(),
+                job.getError()
+            );
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.smartattend.backend.dashboard;
+
+import com.smartattend.backend.attendance.DateRange;
+import com.smartattend.backend.attendance.IdempotencyStore;
+import com.smartattend.backend.sync.SyncChangeLog;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+@Component
+public class ReportJobs {
+    private static final Logger log = LoggerFactory.getLogger(ReportJobs.class);
+
+    private final ReportExporter reportExporter;
+    private final SyncChangeLog syncChangeLog;
+    private final Path directory;
+    private final Duration jobTtl;
+    private final ThreadPoolExecutor executor;
+    private final LinkedHashMap<String, ReportJob> jobs = new LinkedHashMap<>();
+
+    public ReportJobs(ReportExporter reportExporter,
+                      SyncChangeLog syncChangeLog,
+                      @Value("${smartattend.reports.jobs.directory:${java.io.tmpdir}/smartattend-reports}") Path directory,
+                      @Value("${smartattend.reports.jobs.workers:2}") int workers,
+                      @Value("${smartattend.reports.jobs.queue-capacity:20}") int queueCapacity,
+                      @Value("${smartattend.reports.jobs.ttl:PT24H}") Duration jobTtl) throws IOException {
+        this.reportExporter = reportExporter;
+        this.syncChangeLog = syncChangeLog;
+        this.directory = Files.createDirectories(directory);
+        this.jobTtl = jobTtl;
+        this.executor = new ThreadPoolExecutor(
+            workers,
+            workers,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("report-job-")
+        );
+    }
+
+    public ReportJob submit(ReportSpec spec) {
+        long dataVersion = syncChangeLog.latestSeq();
+        String fingerprint = IdempotencyStore.fingerprint(
+            spec.type(),
+            spec.format(),
+            String.valueOf(spec.classId()),
+            String.valueOf(spec.studentId()),
+            spec.range().from().toString(),
+            spec.range().to().toString()
+        );
+        Path result = directory.resolve(fingerprint + "-" + dataVersion + "." + spec.format() + ".gz");
+
+        synchronized (this) {
+            evictExpired();
+            for (ReportJob job : jobs.values()) {
+                if (job.result.equals(result) && job.status != Status.FAILED) {
+                    return job;
+                }
+            }
+            ReportJob job = new ReportJob(UUID.randomUUID().toString(), spec, fingerprint, dataVersion, result);
+            if (Files.exists(result)) {
+                job.status = Status.DONE;
+                job.finishedAt = Instant.now();
+            } else {
+                try {
+                    executor.execute(() -> run(job));
+                } catch (RejectedExecutionException ex) {
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Report queue is full, retry later");
+                }
+            }
+            jobs.put(job.id, job);
+            return job;
+        }
+    }
+
+    public synchronized ReportJob find(String id) {
+        evictExpired();
+        ReportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Report job " + id + " not found");
+        }
+        return job;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(ReportJob job) {
+        job.status = Status.RUNNING;
+        Path partial = job.result.resolveSibling(job.result.getFileName() + "." + job.id + ".part");
+        try {
+            try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)));
+                 ReportWriter writer = counting(job, job.spec.format().equals("xlsx")
+                     ? new XlsxReportWriter(out)
+                     : new CsvReportWriter(out))) {
+                if (job.spec.type().equals("date")) {
+                    reportExporter.exportDates(job.spec.classId(), job.spec.range(), writer);
+                } else {
+                    reportExporter.exportStudents(job.spec.classId(), job.spec.studentId(), job.spec.range(), writer);
+                }
+            }
+            Files.move(partial, job.result, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.status = Status.DONE;
+        } catch (IOException | RuntimeException ex) {
+            job.error = ex.getMessage();
+            job.status = Status.FAILED;
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException ignored) {
+                // the next job for this spec writes a new partial file
+            }
+        } finally {
+            job.finishedAt = Instant.now();
+        }
+        if (job.status == Status.DONE) {
+            try {
+                deleteStale(job);
+            } catch (IOException | RuntimeException ex) {
+                // the result is in place; stale files go with the next job for this spec
+                log.warn("Could not delete stale results for report job {}", job.id, ex);
+            }
+        }
+    }
+
+    // Results for older data versions of the same spec are superseded: their jobs
+    // are evicted together with the files so /result never points at a deleted file.
+    private void deleteStale(ReportJob current) throws IOException {
+        synchronized (this) {
+            jobs.values().removeIf(job -> job.fingerprint.equals(current.fingerprint)
+                && job.dataVersion < current.dataVersion
+                && job.status == Status.DONE);
+        }
+        String prefix = current.fingerprint + "-";
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(prefix) && name.endsWith(".gz")
+                    && Long.parseLong(name.substring(prefix.length(), name.indexOf('.', prefix.length()))) < current.dataVersion) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private void evictExpired() {
+        Instant cutoff = Instant.now().minus(jobTtl);
+        Iterator<ReportJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            ReportJob job = iterator.next();
+            if (job.finishedAt != null && job.finishedAt.isBefore(cutoff)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static ReportWriter counting(ReportJob job, ReportWriter delegate) {
+        return new ReportWriter() {
+            @Override
+            public void row(Object... values) throws IOException {
+                delegate.row(values);
+                job.rows.incrementAndGet();
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+        };
+    }
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    public record ReportSpec(String type, String format, Long classId, Long studentId, DateRange range) {}
+
+    public static final class ReportJob {
+        private final String id;
+        private final ReportSpec spec;
+        private final String fingerprint;
+        private final long dataVersion;
+        private final Path result;
+        private final Instant submittedAt = Instant.now();
+        private final AtomicLong rows = new AtomicLong();
+        private volatile Status status = Status.QUEUED;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private ReportJob(String id, ReportSpec spec, String fingerprint, long dataVersion, Path result) {
+            this.id = id;
+            this.spec = spec;
+            this.fingerprint = fingerprint;
+            this.dataVersion = dataVersion;
+            this.result = result;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public ReportSpec getSpec() {
+            return spec;
+        }
+
+        public Path getResult() {
+            return result;
+        }
+
+        public Instant getSubmittedAt() {
+            return submittedAt;
+        }
+
+        public long getRows() {
+            return rows.get();
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Instant getFinishedAt() {
+            return finishedAt;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
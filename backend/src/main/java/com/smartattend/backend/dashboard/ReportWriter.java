@@ -0,0 +1,8 @@
+package com.smartattend.backend.dashboard;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface ReportWriter extends Closeable {
+    void row(Object... values) throws IOException;
+}
@@ -1,38 +1,138 @@
 package com.smartattend.backend.dashboard;
 
-import com.smartattend.backend.attendance.AttendanceRecord;
+import com.smartattend.backend.analytics.ColumnarAttendanceStore;
+import com.smartattend.backend.attendance.AttendanceBitmapStore;
+import com.smartattend.backend.attendance.AttendanceMark;
 import com.smartattend.backend.attendance.AttendanceRepository;
+import com.smartattend.backend.attendance.DateRange;
+import com.smartattend.backend.attendance.MarkCount;
+import com.smartattend.backend.cache.DataVersions;
+import com.smartattend.backend.cache.ResponseCache;
+import com.smartattend.backend.cache.StudentReportKey;
 import com.smartattend.backend.classes.ClassEntity;
 import com.smartattend.backend.classes.ClassRepository;
+import com.smartattend.backend.dashboard.AbsenceStreaks.StudentStreak;
+import com.smartattend.backend.dashboard.AttendanceRegister.Register;
+import com.smartattend.backend.dashboard.AttendanceTrends.Granularity;
+import com.smartattend.backend.dashboard.AttendanceTrends.TrendPoint;
 import com.smartattend.backend.students.Student;
 import com.smartattend.backend.students.StudentRepository;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/reports")
 public class ReportsController {
+    private static final MediaType XLSX =
+        MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
     private final StudentRepository studentRepository;
     private final ClassRepository classRepository;
     private final AttendanceRepository attendanceRepository;
+    private final AttendanceBitmapStore bitmapStore;
+    private final ResponseCache responseCache;
+    private final AttendanceTrends attendanceTrends;
+    private final ReportExporter reportExporter;
+    private final ObjectProvider<ColumnarAttendanceStore> columnarStoreProvider;
+    private final StudentAttendanceTotals studentTotals;
+    private final AbsenceStreaks absenceStreaks;
+    private final AttendanceRegister attendanceRegister;
+    private final DataVersions dataVersions;
 
     public ReportsController(StudentRepository studentRepository,
                              ClassRepository classRepository,
-                             AttendanceRepository attendanceRepository) {
+                             AttendanceRepository attendanceRepository,
+                             AttendanceBitmapStore bitmapStore,
+                             ResponseCache responseCache,
+                             AttendanceTrends attendanceTrends,
+                             ReportExporter reportExporter,
+                             ObjectProvider<ColumnarAttendanceStore> columnarStoreProvider,
+                             StudentAttendanceTotals studentTotals,
+                             AbsenceStreaks absenceStreaks,
+                             AttendanceRegister attendanceRegister,
+                             DataVersions dataVersions) {
         this.studentRepository = studentRepository;
         this.classRepository = classRepository;
         this.attendanceRepository = attendanceRepository;
+        this.bitmapStore = bitmapStore;
+        this.responseCache = responseCache;
+        this.attendanceTrends = attendanceTrends;
+        this.reportExporter = reportExporter;
+        this.columnarStoreProvider = columnarStoreProvider;
+        this.studentTotals = studentTotals;
+        this.absenceStreaks = absenceStreaks;
+        this.attendanceRegister = attendanceRegister;
+        this.dataVersions = dataVersions;
     }
 
     @GetMapping("/student")
     public List<StudentReport> studentReports(
         @RequestParam(required = false) Long classId,
-        @RequestParam(required = false) Long studentId
+        @RequestParam(required = false) Long studentId,
+        @RequestParam(required = false) String from,
+        @RequestParam(required = false) String to,
+        WebRequest request
     ) {
+        DateRange range = DateRange.parse(from, to);
+        if (dataVersions.notModified(request, studentId == null ? dataVersions.forClass(classId) : dataVersions.school())) {
+            return null;
+        }
+        return cachedStudentReports(classId, studentId, range);
+    }
+
+    private List<StudentReport> cachedStudentReports(Long classId, Long studentId, DateRange range) {
+        return responseCache.get(
+            ResponseCache.STUDENT_REPORTS,
+            new StudentReportKey(classId, studentId, range),
+            () -> buildStudentReports(classId, studentId, range)
+        );
+    }
+
+    private List<StudentReport> buildStudentReports(Long classId, Long studentId, DateRange range) {
+        ColumnarAttendanceStore columnarStore = columnarStoreProvider.getIfAvailable();
+        boolean columnar = columnarStore != null && columnarStore.isReady();
+        if (!columnar && !bitmapStore.isEnabled()) {
+            Long classFilter = studentId == null ? classId : null;
+            return attendanceRepository.findStudentTotals(classFilter, studentId, range.from(), range.to()).stream()
+                .map(totals -> {
+                    MarkCount count = new MarkCount(totals.present(), totals.total());
+                    return new StudentReport(
+                        totals.studentId(),
+                        totals.rollNo(),
+                        totals.fullName(),
+                        totals.className(),
+                        Math.toIntExact(count.total()),
+                        Math.toIntExact(count.present()),
+                        Math.toIntExact(count.absent()),
+                        count.percentage()
+                    );
+                })
+                .toList();
+        }
+
         List<Student> students;
         if (studentId != null) {
             students = studentRepository.findById(studentId).map(List::of).orElse(List.of());
@@ -42,43 +142,216 @@ public class ReportsController {
             students = studentRepository.findAll();
         }
 
+        Map<Long, MarkCount> columnarCounts = columnar
+            ? columnarStore.countByStudent(students.stream()
+                .collect(Collectors.toMap(Student::getId, student -> student.getClassEntity().getId())), range)
+            : Map.of();
+        Map<Long, Map<Long, MarkCount>> countsByClass = new HashMap<>();
         return students.stream().map(student -> {
-            List<AttendanceRecord> attendance = attendanceRepository.findByClassEntityId(student.getClassEntity().getId())
-                .stream()
-                .filter(record -> record.getStudent().getId().equals(student.getId()))
-                .toList();
-            int total = attendance.size();
-            int present = (int) attendance.stream().filter(AttendanceRecord::isPresent).count();
-            int absent = total - present;
-            int percentage = total == 0 ? 0 : Math.toIntExact(Math.round((present * 100.0) / total));
+            MarkCount count = columnar
+                ? columnarCounts.getOrDefault(student.getId(), MarkCount.EMPTY)
+                : countsByClass
+                    .computeIfAbsent(
+                        student.getClassEntity().getId(),
+                        id -> bitmapStore.countByStudent(id, range.from(), range.to())
+                    )
+                    .getOrDefault(student.getId(), MarkCount.EMPTY);
             return new StudentReport(
                 student.getId(),
                 student.getRollNo(),
                 student.getFullName(),
                 student.getClassEntity().getName(),
-                total,
-                present,
-                absent,
-                percentage
+                Math.toIntExact(count.total()),
+                Math.toIntExact(count.present()),
+                Math.toIntExact(count.absent()),
+                count.percentage()
             );
         }).toList();
     }
 
+    @GetMapping("/defaulters")
+    public List<StudentReport> defaulters(
+        @RequestParam(defaultValue = "75") BigDecimal threshold,
+        @RequestParam(required = false) Long classId,
+        @RequestParam(required = false) String from,
+        @RequestParam(required = false) String to,
+        WebRequest request
+    ) {
+        if (threshold.signum() < 0 || threshold.compareTo(BigDecimal.valueOf(100)) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "threshold must be between 0 and 100");
+        }
+        DateRange range = DateRange.parse(from, to);
+        if (dataVersions.notModified(request, dataVersions.forClass(classId))) {
+            return null;
+        }
+        if (range.isAll()) {
+            return studentTotals.findBelow(threshold, classId).stream()
+                .map(defaulter -> {
+                    MarkCount count = new MarkCount(defaulter.present(), defaulter.total());
+                    return new StudentReport(
+                        defaulter.studentId(),
+                        defaulter.rollNo(),
+                        defaulter.fullName(),
+                        defaulter.className(),
+                        Math.toIntExact(count.total()),
+                        Math.toIntExact(count.present()),
+                        Math.toIntExact(count.absent()),
+                        count.percentage()
+                    );
+                })
+                .toList();
+        }
+        return cachedStudentReports(classId, null, range).stream()
+            .filter(report -> report.totalDays() > 0)
+            .filter(report -> BigDecimal.valueOf(report.presentDays() * 100L)
+                .compareTo(threshold.multiply(BigDecimal.valueOf(report.totalDays()))) < 0)
+            .sorted(Comparator.comparingDouble((StudentReport report) -> (double) report.presentDays() / report.totalDays())
+                .thenComparing(StudentReport::studentId))
+            .toList();
+    }
+
+    @GetMapping("/absence-streaks")
+    public List<StudentStreak> absenceStreaks(
+        @RequestParam(defaultValue = "3") int min,
+        @RequestParam(required = false) Long classId,
+        WebRequest request
+    ) {
+        if (min < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "min must be at least 1");
+        }
+        if (dataVersions.notModified(request, dataVersions.forClass(classId))) {
+            return null;
+        }
+        return absenceStreaks.findAtLeast(min, classId);
+    }
+
+    @GetMapping("/student/export")
+    public ResponseEntity<StreamingResponseBody> exportStudentReports(
+        @RequestParam(defaultValue = "csv") String format,
+        @RequestParam(required = false) Long classId,
+        @RequestParam(required = false) Long studentId,
+        @RequestParam(required = false) String from,
+        @RequestParam(required = false) String to
+    ) {
+        boolean xlsx = "xlsx".equalsIgnoreCase(format);
+        DateRange range = DateRange.parse(from, to);
+        StreamingResponseBody body = out -> {
+            try (ReportWriter writer = xlsx ? new XlsxReportWriter(out) : new CsvReportWriter(out)) {
+                reportExporter.exportStudents(classId, studentId, range, writer);
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(xlsx ? XLSX : new MediaType("text", "csv", StandardCharsets.UTF_8))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(xlsx ? "student-report.xlsx" : "student-report.csv")
+                .build()
+                .toString())
+            .body(body);
+    }
+
     @GetMapping("/date")
-    public List<DateReport> dateReports(@RequestParam Long classId, @RequestParam String date) {
+    public List<DateReport> dateReports(
+        @RequestParam Long classId,
+        @RequestParam(required = false) String date,
+        @RequestParam(required = false) String from,
+        @RequestParam(required = false) String to,
+        WebRequest request
+    ) {
+        if (date == null && from == null && to == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "date, or from and/or to, is required");
+        }
+        if (dataVersions.notModified(request, dataVersions.forClass(classId))) {
+            return null;
+        }
         ClassEntity classEntity = classRepository.findById(classId).orElseThrow();
-        LocalDate parsedDate = LocalDate.parse(date);
-        return attendanceRepository.findByClassEntityIdAndDate(classId, parsedDate).stream()
+        DateRange range = date != null
+            ? new DateRange(LocalDate.parse(date), LocalDate.parse(date))
+            : DateRange.parse(from, to);
+        if (bitmapStore.isEnabled()) {
+            List<AttendanceMark> marks = bitmapStore.findClassRange(classId, range.from(), range.to());
+            Set<Long> studentIds = marks.stream().map(AttendanceMark::studentId).collect(Collectors.toSet());
+            Map<Long, Student> students = studentRepository.findAllById(studentIds).stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+            return marks.stream()
+                .filter(mark -> students.containsKey(mark.studentId()))
+                .map(mark -> {
+                    Student student = students.get(mark.studentId());
+                    return new DateReport(
+                        student.getId(),
+                        student.getRollNo(),
+                        student.getFullName(),
+                        mark.present(),
+                        classEntity.getName(),
+                        mark.date().toString()
+                    );
+                })
+                .toList();
+        }
+        return attendanceRepository.findClassRange(classId, range.from(), range.to()).stream()
             .map(record -> new DateReport(
                 record.getStudent().getId(),
                 record.getStudent().getRollNo(),
                 record.getStudent().getFullName(),
                 record.isPresent(),
-                classEntity.getName()
+                classEntity.getName(),
+                record.getDate().toString()
             ))
             .toList();
     }
 
+    @GetMapping("/register")
+    public Register register(@RequestParam Long classId,
+                             @RequestParam(required = false) String month,
+                             WebRequest request) {
+        YearMonth parsedMonth = month == null ? YearMonth.now() : YearMonth.parse(month);
+        if (dataVersions.notModified(request, dataVersions.forClass(classId, parsedMonth))) {
+            return null;
+        }
+        return attendanceRegister.build(classId, parsedMonth);
+    }
+
+    @GetMapping("/trend")
+    public TrendResponse trend(
+        @RequestParam(defaultValue = "school") String scope,
+        @RequestParam(required = false) Long id,
+        @RequestParam(defaultValue = "day") String granularity,
+        @RequestParam(required = false) String from,
+        @RequestParam(required = false) String to,
+        WebRequest request
+    ) {
+        String parsedScope = scope.toLowerCase(Locale.ROOT);
+        if (!List.of("school", "class", "student").contains(parsedScope)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "scope must be school, class or student");
+        }
+        Granularity parsedGranularity;
+        try {
+            parsedGranularity = Granularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "granularity must be day, week or month");
+        }
+        LocalDate parsedTo = to == null ? LocalDate.now() : LocalDate.parse(to);
+        LocalDate parsedFrom = from == null ? parsedTo.minusDays(29) : LocalDate.parse(from);
+        String etag = parsedScope.equals("class")
+            ? dataVersions.forClass(requireId(id), parsedFrom, parsedTo)
+            : dataVersions.school(parsedFrom, parsedTo);
+        if (dataVersions.notModified(request, etag)) {
+            return null;
+        }
+        List<TrendPoint> points = switch (parsedScope) {
+            case "class" -> attendanceTrends.forClass(requireId(id), parsedGranularity, parsedFrom, parsedTo);
+            case "student" -> attendanceTrends.forStudent(requireId(id), parsedGranularity, parsedFrom, parsedTo);
+            default -> attendanceTrends.school(parsedGranularity, parsedFrom, parsedTo);
+        };
+        return new TrendResponse(parsedScope, id, granularity, parsedFrom.toString(), parsedTo.toString(), points);
+    }
+
+    private static Long requireId(Long id) {
+        if (id == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "id is required for class and student trends");
+        }
+        return id;
+    }
+
     public record StudentReport(
         Long studentId,
         String rollNo,
@@ -90,11 +363,21 @@ public class ReportsController {
         int percentage
     ) {}
 
+    public record TrendResponse(
+        String scope,
+        Long id,
+        String granularity,
+        String from,
+        String to,
+        List<TrendPoint> points
+    ) {}
+
     public record DateReport(
         Long studentId,
         String rollNo,
         String fullName,
         boolean present,
-        String className
+        String className,
+        String date
     ) {}
 }
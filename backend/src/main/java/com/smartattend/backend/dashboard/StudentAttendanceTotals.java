@@ -0,0 +1,112 @@
+package com.smartattend.backend.dashboard;
+
+import com.smartattend.backend.attendance.AttendanceBitmapStore;
+import com.smartattend.backend.attendance.AttendanceChangedEvent;
+import com.smartattend.backend.attendance.MarkChange;
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+public class StudentAttendanceTotals {
+    private static final String APPLY_SQL = """
+        INSERT INTO attendance_student_totals (student_id, class_id, present, total)
+        VALUES (?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE present = present + VALUES(present), total = total + VALUES(total)
+        """;
+    private static final String REBUILD_ROWS_SQL = """
+        INSERT INTO attendance_student_totals (student_id, class_id, present, total)
+        SELECT student_id, class_id, SUM(is_present), COUNT(*) FROM attendance GROUP BY student_id, class_id
+        """;
+    private static final String DEFAULTERS_SQL = """
+        SELECT t.student_id, s.roll_no, s.full_name, t.class_id, c.name AS class_name, t.present, t.total
+        FROM attendance_student_totals t
+        JOIN students s ON s.id = t.student_id
+        JOIN classes c ON c.id = t.class_id
+        WHERE t.percentage < ? + 0.01 AND t.present * 100 < ? * t.total
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AttendanceBitmapStore bitmapStore;
+
+    public StudentAttendanceTotals(JdbcTemplate jdbcTemplate, AttendanceBitmapStore bitmapStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bitmapStore = bitmapStore;
+    }
+
+    @EventListener
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        Map<StudentClass, int[]> deltas = new LinkedHashMap<>();
+        for (MarkChange change : event.changes()) {
+            int[] delta = deltas.computeIfAbsent(new StudentClass(change.studentId(), change.classId()), key -> new int[2]);
+            delta[0] += change.presentDelta();
+            delta[1] += change.totalDelta();
+        }
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                rows.add(new Object[] {key.studentId(), key.classId(), delta[0], delta[1]});
+            }
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPLY_SQL, rows, new int[] {Types.BIGINT, Types.BIGINT, Types.INTEGER, Types.INTEGER});
+        }
+    }
+
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.update("DELETE FROM attendance_student_totals");
+        if (!bitmapStore.isEnabled()) {
+            return jdbcTemplate.update(REBUILD_ROWS_SQL);
+        }
+        Map<StudentClass, int[]> totals = new HashMap<>();
+        bitmapStore.forEachMark(mark -> {
+            int[] counts = totals.computeIfAbsent(new StudentClass(mark.studentId(), mark.classId()), key -> new int[2]);
+            counts[0] += mark.present() ? 1 : 0;
+            counts[1]++;
+        });
+        List<Object[]> rows = new ArrayList<>(totals.size());
+        totals.forEach((key, counts) -> rows.add(new Object[] {key.studentId(), key.classId(), counts[0], counts[1]}));
+        jdbcTemplate.batchUpdate(APPLY_SQL, rows, new int[] {Types.BIGINT, Types.BIGINT, Types.INTEGER, Types.INTEGER});
+        return rows.size();
+    }
+
+    public List<Defaulter> findBelow(BigDecimal threshold, Long classId) {
+        // percentage is rounded to two places, so it only narrows the index range;
+        // the exact comparison is made on the counters.
+        String sql = DEFAULTERS_SQL + (classId == null ? "" : " AND t.class_id = ?")
+            + " ORDER BY t.present / t.total, t.student_id";
+        Object[] args = classId == null
+            ? new Object[] {threshold, threshold}
+            : new Object[] {threshold, threshold, classId};
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new Defaulter(
+            rs.getLong("student_id"),
+            rs.getString("roll_no"),
+            rs.getString("full_name"),
+            rs.getLong("class_id"),
+            rs.getString("class_name"),
+            rs.getLong("present"),
+            rs.getLong("total")
+        ), args);
+    }
+
+    public record Defaulter(
+        long studentId,
+        String rollNo,
+        String fullName,
+        long classId,
+        String className,
+        long present,
+        long total
+    ) {}
+
+    private record StudentClass(long studentId, long classId) {}
+}
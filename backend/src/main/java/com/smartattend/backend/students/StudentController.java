@@ -2,12 +2,16 @@ package com.smartattend.backend.students;
 
 import com.smartattend.backend.auth.UserAccount;
 import com.smartattend.backend.auth.UserAccountRepository;
+import com.smartattend.backend.cache.DataVersions;
 import com.smartattend.backend.classes.ClassEntity;
 import com.smartattend.backend.classes.ClassRepository;
+import com.smartattend.backend.sync.SyncChangeLog;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,6 +24,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/students")
@@ -27,17 +32,30 @@ public class StudentController {
     private final StudentRepository studentRepository;
     private final ClassRepository classRepository;
     private final UserAccountRepository userAccountRepository;
+    private final SyncChangeLog syncChangeLog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DataVersions dataVersions;
 
     public StudentController(StudentRepository studentRepository,
                              ClassRepository classRepository,
-                             UserAccountRepository userAccountRepository) {
+                             UserAccountRepository userAccountRepository,
+                             SyncChangeLog syncChangeLog,
+                             ApplicationEventPublisher eventPublisher,
+                             DataVersions dataVersions) {
         this.studentRepository = studentRepository;
         this.classRepository = classRepository;
         this.userAccountRepository = userAccountRepository;
+        this.syncChangeLog = syncChangeLog;
+        this.eventPublisher = eventPublisher;
+        this.dataVersions = dataVersions;
     }
 
     @GetMapping
-    public List<StudentResponse> listStudents(@RequestParam(name = "classId", required = false) Long classId) {
+    public List<StudentResponse> listStudents(@RequestParam(name = "classId", required = false) Long classId,
+                                              WebRequest request) {
+        if (dataVersions.notModified(request, dataVersions.forClass(classId))) {
+            return null;
+        }
         List<Student> students = classId == null
             ? studentRepository.findAll()
             : studentRepository.findByClassEntityId(classId);
@@ -60,6 +78,8 @@ public class StudentController {
             classEntity,
             createdBy
         ));
+        syncChangeLog.recordStudent(saved.getId(), false);
+        eventPublisher.publishEvent(new StudentsChangedEvent(saved.getId(), Set.of(classEntity.getId())));
         return StudentResponse.from(saved);
     }
 
@@ -67,18 +87,27 @@ public class StudentController {
     public StudentResponse updateStudent(@PathVariable Long id, @Valid @RequestBody StudentRequest request) {
         Student student = studentRepository.findById(id).orElseThrow();
         ClassEntity classEntity = classRepository.findById(request.classId()).orElseThrow();
+        Long previousClassId = student.getClassEntity().getId();
         student.setRollNo(request.rollNo());
         student.setFullName(request.fullName());
         student.setEmail(request.email());
         student.setPhone(request.phone());
         student.setClassEntity(classEntity);
-        return StudentResponse.from(studentRepository.save(student));
+        Student saved = studentRepository.save(student);
+        syncChangeLog.recordStudent(saved.getId(), false);
+        eventPublisher.publishEvent(new StudentsChangedEvent(saved.getId(), Set.copyOf(List.of(previousClassId, classEntity.getId()))));
+        return StudentResponse.from(saved);
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteStudent(@PathVariable Long id) {
+        Set<Long> classIds = studentRepository.findById(id)
+            .map(student -> Set.of(student.getClassEntity().getId()))
+            .orElse(Set.of());
         studentRepository.deleteById(id);
+        syncChangeLog.recordStudent(id, true);
+        eventPublisher.publishEvent(new StudentsChangedEvent(id, classIds));
     }
 
     public record StudentRequest(
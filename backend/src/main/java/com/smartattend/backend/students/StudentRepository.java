@@ -2,7 +2,12 @@ package com.smartattend.backend.students;
 
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface StudentRepository extends JpaRepository<Student, Long> {
     List<Student> findByClassEntityId(Long classId);
+
+    @Query("select s.id as id, s.rollNo as rollNo from Student s where s.classEntity.id = :classId")
+    List<StudentRoll> findRollsByClassId(@Param("classId") Long classId);
 }
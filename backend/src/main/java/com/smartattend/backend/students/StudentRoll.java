@@ -0,0 +1,6 @@
+package com.smartattend.backend.students;
+
+public interface StudentRoll {
+    Long getId();
+    String getRollNo();
+}
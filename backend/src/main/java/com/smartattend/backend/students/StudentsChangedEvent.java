@@ -0,0 +1,5 @@
+package com.smartattend.backend.students;
+
+import java.util.Set;
+
+public record StudentsChangedEvent(Long studentId, Set<Long> classIds) {}
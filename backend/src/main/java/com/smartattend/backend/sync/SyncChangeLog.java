@@ -0,0 +1,103 @@
+package com.smartattend.backend.sync;
+
+import com.smartattend.backend.attendance.ClassDay;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SyncChangeLog {
+    private static final String INSERT_SQL = """
+        INSERT INTO sync_change (entity_type, entity_id, entity_date, deleted, changed_at)
+        VALUES (?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration settleDelay;
+
+    public SyncChangeLog(JdbcTemplate jdbcTemplate,
+                         @Value("${smartattend.sync.settle-delay:PT2S}") Duration settleDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.settleDelay = settleDelay;
+    }
+
+    public void recordClass(Long classId, boolean deleted) {
+        append(SyncEntityType.CLASS, classId, null, deleted);
+    }
+
+    public void recordStudent(Long studentId, boolean deleted) {
+        append(SyncEntityType.STUDENT, studentId, null, deleted);
+    }
+
+    public void recordAttendance(Collection<ClassDay> classDays, boolean deleted) {
+        if (classDays.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = classDays.stream()
+            .map(classDay -> new Object[] {
+                SyncEntityType.ATTENDANCE.name(), classDay.classId(), Date.valueOf(classDay.date()), deleted, now
+            })
+            .toList();
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    public long latestSeq() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM sync_change", Long.class);
+    }
+
+    public List<SyncChange> findSince(long cursor, int limit) {
+        Timestamp settled = Timestamp.from(Instant.now().minus(settleDelay));
+        return jdbcTemplate.query(
+            """
+            SELECT seq, entity_type, entity_id, entity_date, deleted, changed_at FROM sync_change
+            WHERE seq > ?
+            ORDER BY seq
+            LIMIT ?
+            """,
+            rs -> {
+                List<SyncChange> changes = new ArrayList<>();
+                long expected = cursor + 1;
+                while (rs.next()) {
+                    long seq = rs.getLong("seq");
+                    if (seq != expected && rs.getTimestamp("changed_at").after(settled)) {
+                        break;
+                    }
+                    Date entityDate = rs.getDate("entity_date");
+                    changes.add(new SyncChange(
+                        seq,
+                        SyncEntityType.valueOf(rs.getString("entity_type")),
+                        rs.getLong("entity_id"),
+                        entityDate == null ? null : entityDate.toLocalDate(),
+                        rs.getBoolean("deleted")
+                    ));
+                    expected = seq + 1;
+                }
+                return changes;
+            },
+            cursor,
+            limit
+        );
+    }
+
+    private void append(SyncEntityType type, Long entityId, LocalDate entityDate, boolean deleted) {
+        jdbcTemplate.update(
+            INSERT_SQL,
+            type.name(),
+            entityId,
+            entityDate == null ? null : Date.valueOf(entityDate),
+            deleted,
+            Timestamp.from(Instant.now())
+        );
+    }
+
+    public record SyncChange(long seq, SyncEntityType type, long entityId, LocalDate entityDate, boolean deleted) {}
+}
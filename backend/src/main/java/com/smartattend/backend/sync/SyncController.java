@@ -0,0 +1,151 @@
+package com.smartattend.backend.sync;
+
+import com.smartattend.backend.attendance.AttendanceBitmapStore;
+import com.smartattend.backend.attendance.AttendanceMark;
+import com.smartattend.backend.attendance.AttendanceRepository;
+import com.smartattend.backend.attendance.ClassDay;
+import com.smartattend.backend.classes.ClassRepository;
+import com.smartattend.backend.students.StudentRepository;
+import com.smartattend.backend.sync.SyncChangeLog.SyncChange;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+    private static final int MAX_LIMIT = 5000;
+
+    private final SyncChangeLog syncChangeLog;
+    private final ClassRepository classRepository;
+    private final StudentRepository studentRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceBitmapStore bitmapStore;
+
+    public SyncController(SyncChangeLog syncChangeLog,
+                          ClassRepository classRepository,
+                          StudentRepository studentRepository,
+                          AttendanceRepository attendanceRepository,
+                          AttendanceBitmapStore bitmapStore) {
+        this.syncChangeLog = syncChangeLog;
+        this.classRepository = classRepository;
+        this.studentRepository = studentRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.bitmapStore = bitmapStore;
+    }
+
+    @GetMapping
+    public SyncResponse sync(
+        @RequestParam(defaultValue = "0") long cursor,
+        @RequestParam(defaultValue = "1000") int limit
+    ) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<SyncChange> changes = syncChangeLog.findSince(cursor, pageSize);
+        long nextCursor = changes.isEmpty() ? cursor : changes.get(changes.size() - 1).seq();
+
+        Map<SyncKey, SyncChange> latest = new LinkedHashMap<>();
+        changes.forEach(change -> latest.put(new SyncKey(change.type(), change.entityId(), change.entityDate()), change));
+
+        List<SyncTombstone> deleted = new ArrayList<>();
+        List<Long> classIds = new ArrayList<>();
+        List<Long> studentIds = new ArrayList<>();
+        List<ClassDay> classDays = new ArrayList<>();
+        latest.values().forEach(change -> {
+            if (change.deleted()) {
+                deleted.add(new SyncTombstone(
+                    change.type(),
+                    change.entityId(),
+                    change.entityDate() == null ? null : change.entityDate().toString()
+                ));
+                return;
+            }
+            switch (change.type()) {
+                case CLASS -> classIds.add(change.entityId());
+                case STUDENT -> studentIds.add(change.entityId());
+                case ATTENDANCE -> classDays.add(new ClassDay(change.entityId(), change.entityDate()));
+            }
+        });
+
+        List<SyncClass> classes = classRepository.findAllById(classIds).stream()
+            .map(cls -> new SyncClass(cls.getId(), cls.getName(), cls.getDescription(), cls.getCreatedAt()))
+            .toList();
+        List<SyncStudent> students = studentRepository.findAllById(studentIds).stream()
+            .map(student -> new SyncStudent(
+                student.getId(),
+                student.getRollNo(),
+                student.getFullName(),
+                student.getEmail(),
+                student.getPhone(),
+                student.getClassEntity().getId()
+            ))
+            .toList();
+
+        return new SyncResponse(
+            nextCursor,
+            changes.size() == pageSize,
+            classes,
+            students,
+            attendanceDays(classDays),
+            deleted
+        );
+    }
+
+    private List<SyncAttendanceDay> attendanceDays(List<ClassDay> classDays) {
+        if (classDays.isEmpty()) {
+            return List.of();
+        }
+        List<AttendanceMark> marks;
+        if (bitmapStore.isEnabled()) {
+            marks = bitmapStore.findClassDays(classDays);
+        } else {
+            Set<Long> classIds = classDays.stream().map(ClassDay::classId).collect(Collectors.toSet());
+            Set<LocalDate> dates = classDays.stream().map(ClassDay::date).collect(Collectors.toSet());
+            marks = attendanceRepository.findMarks(classIds, dates);
+        }
+
+        Map<ClassDay, List<SyncMark>> byClassDay = new LinkedHashMap<>();
+        classDays.forEach(classDay -> byClassDay.put(classDay, new ArrayList<>()));
+        marks.stream()
+            .sorted(Comparator.comparing(AttendanceMark::studentId))
+            .forEach(mark -> {
+                List<SyncMark> dayMarks = byClassDay.get(new ClassDay(mark.classId(), mark.date()));
+                if (dayMarks != null) {
+                    dayMarks.add(new SyncMark(mark.studentId(), mark.present()));
+                }
+            });
+        return byClassDay.entrySet().stream()
+            .map(entry -> new SyncAttendanceDay(entry.getKey().classId(), entry.getKey().date().toString(), entry.getValue()))
+            .toList();
+    }
+
+    private record SyncKey(SyncEntityType type, long entityId, LocalDate entityDate) {}
+
+    public record SyncResponse(
+        long cursor,
+        boolean hasMore,
+        List<SyncClass> classes,
+        List<SyncStudent> students,
+        List<SyncAttendanceDay> attendance,
+        List<SyncTombstone> deleted
+    ) {}
+
+    public record SyncClass(Long id, String name, String description, Instant createdAt) {}
+
+    public record SyncStudent(Long id, String rollNo, String fullName, String email, String phone, Long classId) {}
+
+    public record SyncAttendanceDay(Long classId, String date, List<SyncMark> marks) {}
+
+    public record SyncMark(Long studentId, boolean present) {}
+
+    public record SyncTombstone(SyncEntityType type, long id, String date) {}
+}
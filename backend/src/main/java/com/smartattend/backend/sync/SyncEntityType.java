@@ -0,0 +1,7 @@
+package com.smartattend.backend.sync;
+
+public enum SyncEntityType {
+    CLASS,
+    STUDENT,
+    ATTENDANCE
+}
@@ -0,0 +1,114 @@
+-- Databases adopted through baseline-on-migrate kept the tables built by
+-- ddl-auto=update, and CREATE TABLE IF NOT EXISTS in V1 left them untouched.
+-- Those attendance tables have no unique (student_id, class_id, date), so the
+-- ON DUPLICATE KEY upserts inserted duplicate rows instead of updating.
+
+-- Keep the newest row per student/class/day, moving its duplicates' history
+-- onto it first so the cascading log FK does not drop it.
+CREATE TEMPORARY TABLE attendance_keep AS
+SELECT student_id, class_id, date, MAX(id) AS id
+FROM attendance
+GROUP BY student_id, class_id, date
+HAVING COUNT(*) > 1;
+
+CREATE TEMPORARY TABLE attendance_duplicate AS
+SELECT a.id, a.student_id, a.class_id, a.date, a.is_present, k.id AS keep_id
+FROM attendance a
+JOIN attendance_keep k ON k.student_id = a.student_id AND k.class_id = a.class_id AND k.date = a.date
+WHERE a.id <> k.id;
+
+-- V6 and V8 counted the duplicates; take their marks back out.
+UPDATE attendance_daily_rollup r
+JOIN (
+    SELECT class_id, date, SUM(is_present) AS present, COUNT(*) AS total
+    FROM attendance_duplicate
+    GROUP BY class_id, date
+) d ON d.class_id = r.class_id AND d.date = r.date
+SET r.present = r.present - d.present, r.total = r.total - d.total;
+
+UPDATE attendance_student_totals t
+JOIN (
+    SELECT student_id, class_id, SUM(is_present) AS present, COUNT(*) AS total
+    FROM attendance_duplicate
+    GROUP BY student_id, class_id
+) d ON d.student_id = t.student_id AND d.class_id = t.class_id
+SET t.present = t.present - d.present, t.total = t.total - d.total;
+
+UPDATE attendance_log l
+JOIN attendance_duplicate d ON d.id = l.attendance_id
+SET l.attendance_id = d.keep_id;
+
+DELETE a
+FROM attendance a
+JOIN attendance_duplicate d ON d.id = a.id;
+
+-- Streaks from V9 are recomputed for the affected students, as in V9.
+CREATE TEMPORARY TABLE attendance_affected_students AS
+SELECT DISTINCT student_id FROM attendance_duplicate;
+
+DELETE s
+FROM attendance_absence_streaks s
+JOIN attendance_affected_students a ON a.student_id = s.student_id;
+
+INSERT INTO attendance_absence_streaks (student_id, current_streak, longest_streak, last_date)
+WITH ordered AS (
+    SELECT student_id, is_present,
+           SUM(is_present) OVER (PARTITION BY student_id ORDER BY date ROWS UNBOUNDED PRECEDING) AS presents_before
+    FROM attendance
+),
+runs AS (
+    SELECT student_id, presents_before, COUNT(*) AS length
+    FROM ordered
+    WHERE is_present = 0
+    GROUP BY student_id, presents_before
+),
+summary AS (
+    SELECT student_id, SUM(is_present) AS presents, MAX(date) AS last_date
+    FROM attendance
+    GROUP BY student_id
+)
+SELECT s.student_id,
+       COALESCE(MAX(CASE WHEN r.presents_before = s.presents THEN r.length END), 0),
+       COALESCE(MAX(r.length), 0),
+       s.last_date
+FROM summary s
+JOIN attendance_affected_students a ON a.student_id = s.student_id
+LEFT JOIN runs r ON r.student_id = s.student_id
+GROUP BY s.student_id, s.last_date;
+
+DROP TEMPORARY TABLE attendance_affected_students;
+DROP TEMPORARY TABLE attendance_duplicate;
+DROP TEMPORARY TABLE attendance_keep;
+
+-- Add each unique key V1 declares unless an equivalent one already exists,
+-- whatever ddl-auto named it.
+SET @has_key = (
+    SELECT COUNT(*) FROM (
+        SELECT index_name
+        FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'attendance' AND non_unique = 0
+        GROUP BY index_name
+        HAVING GROUP_CONCAT(column_name ORDER BY column_name) = 'class_id,date,student_id'
+    ) existing
+);
+SET @ddl = IF(@has_key > 0, 'DO 0',
+    'ALTER TABLE attendance ADD CONSTRAINT uk_attendance_student_class_date UNIQUE (student_id, class_id, date)');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- ddl-auto created users.email as unique, so there are no duplicates to merge;
+-- this only covers schemas where that key was dropped by hand.
+SET @has_key = (
+    SELECT COUNT(*) FROM (
+        SELECT index_name
+        FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'users' AND non_unique = 0
+        GROUP BY index_name
+        HAVING GROUP_CONCAT(column_name ORDER BY column_name) = 'email'
+    ) existing
+);
+SET @ddl = IF(@has_key > 0, 'DO 0', 'ALTER TABLE users ADD CONSTRAINT uk_users_email UNIQUE (email)');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
@@ -0,0 +1,18 @@
+-- Queued submissions that keep failing are retried up to
+-- smartattend.attendance.ingest.max-attempts times, then moved here so they stop
+-- blocking the drain and stop overriding committed data on reads.
+ALTER TABLE attendance_ingest_queue ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+
+CREATE TABLE attendance_ingest_dead_letter (
+    id BIGINT NOT NULL,
+    class_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    payload LONGTEXT NOT NULL,
+    marked_by BIGINT,
+    queued_at DATETIME(6) NOT NULL,
+    attempts INT NOT NULL,
+    reason VARCHAR(1000) NOT NULL,
+    failed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_attendance_ingest_dead_letter_class_date (class_id, date)
+) ENGINE = InnoDB;
@@ -0,0 +1,14 @@
+-- Next free class_roster position per class. AttendanceBitmapStore locks this
+-- row before assigning positions, so concurrent first marks for new students in
+-- the same class cannot pick the same position.
+CREATE TABLE class_roster_sequence (
+    class_id BIGINT NOT NULL,
+    next_position INT NOT NULL,
+    PRIMARY KEY (class_id),
+    CONSTRAINT fk_class_roster_sequence_class FOREIGN KEY (class_id) REFERENCES classes (id)
+) ENGINE = InnoDB;
+
+INSERT INTO class_roster_sequence (class_id, next_position)
+SELECT class_id, MAX(position) + 1
+FROM class_roster
+GROUP BY class_id;
@@ -0,0 +1,73 @@
+-- Baseline matching the schema previously produced by hibernate ddl-auto=update.
+-- IF NOT EXISTS lets databases created before migrations adopt this history.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    full_name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS classes (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    created_at DATETIME(6) NOT NULL,
+    created_by BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_classes_created_by FOREIGN KEY (created_by) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS students (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    roll_no VARCHAR(255) NOT NULL,
+    full_name VARCHAR(255) NOT NULL,
+    email VARCHAR(255),
+    phone VARCHAR(255),
+    class_id BIGINT NOT NULL,
+    created_by BIGINT,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_students_class FOREIGN KEY (class_id) REFERENCES classes (id),
+    CONSTRAINT fk_students_created_by FOREIGN KEY (created_by) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS attendance (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    student_id BIGINT NOT NULL,
+    class_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    is_present BIT NOT NULL,
+    marked_by BIGINT,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_attendance_student_class_date UNIQUE (student_id, class_id, date),
+    CONSTRAINT fk_attendance_student FOREIGN KEY (student_id) REFERENCES students (id),
+    CONSTRAINT fk_attendance_class FOREIGN KEY (class_id) REFERENCES classes (id),
+    CONSTRAINT fk_attendance_marked_by FOREIGN KEY (marked_by) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS attendance_log (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    attendance_id BIGINT NOT NULL,
+    previous_status BIT NOT NULL,
+    new_status BIT NOT NULL,
+    changed_by BIGINT,
+    changed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_attendance_log_attendance FOREIGN KEY (attendance_id) REFERENCES attendance (id) ON DELETE CASCADE,
+    CONSTRAINT fk_attendance_log_changed_by FOREIGN KEY (changed_by) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS attendance_ingest_queue (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    class_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    payload LONGTEXT NOT NULL,
+    marked_by BIGINT,
+    queued_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
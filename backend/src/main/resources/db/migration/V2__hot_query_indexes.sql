@@ -0,0 +1,10 @@
+-- AttendanceRepository.findByClassEntityIdAndDate / findByClassEntityId and the
+-- per class/date lookups in AttendanceWriteService. is_present and student_id
+-- are included so the counting and existing-row queries are index-only.
+CREATE INDEX idx_attendance_class_date ON attendance (class_id, date, is_present, student_id);
+
+-- AttendanceRepository.findByDate (today's dashboard figures).
+CREATE INDEX idx_attendance_date ON attendance (date, class_id, is_present);
+
+-- StudentRepository.findByClassEntityId, ordered the way rosters are listed.
+CREATE INDEX idx_students_class_roll ON students (class_id, roll_no);
@@ -0,0 +1,25 @@
+-- Stable bit position of each student within a class, assigned on first mark.
+CREATE TABLE class_roster (
+    class_id BIGINT NOT NULL,
+    position INT NOT NULL,
+    student_id BIGINT NOT NULL,
+    PRIMARY KEY (class_id, position),
+    CONSTRAINT uk_class_roster_student UNIQUE (class_id, student_id),
+    CONSTRAINT fk_class_roster_class FOREIGN KEY (class_id) REFERENCES classes (id),
+    CONSTRAINT fk_class_roster_student FOREIGN KEY (student_id) REFERENCES students (id)
+) ENGINE = InnoDB;
+
+-- One row per class/day when smartattend.attendance.storage=bitmap. Bit n of
+-- marked/present belongs to the student at class_roster.position n.
+CREATE TABLE attendance_bitmap (
+    class_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    marked VARBINARY(1024) NOT NULL,
+    present VARBINARY(1024) NOT NULL,
+    marked_by BIGINT,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (class_id, date),
+    KEY idx_attendance_bitmap_date (date),
+    CONSTRAINT fk_attendance_bitmap_class FOREIGN KEY (class_id) REFERENCES classes (id),
+    CONSTRAINT fk_attendance_bitmap_marked_by FOREIGN KEY (marked_by) REFERENCES users (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,27 @@
+-- Monotonic change feed for GET /api/sync. Attendance changes are recorded
+-- per class/day (entity_id = class id, entity_date = day).
+CREATE TABLE sync_change (
+    seq BIGINT NOT NULL AUTO_INCREMENT,
+    entity_type VARCHAR(16) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    entity_date DATE,
+    deleted BIT NOT NULL,
+    changed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (seq)
+) ENGINE = InnoDB;
+
+-- Seed the feed so a client starting from cursor 0 receives existing data.
+INSERT INTO sync_change (entity_type, entity_id, entity_date, deleted, changed_at)
+SELECT 'CLASS', id, NULL, 0, NOW(6) FROM classes ORDER BY id;
+
+INSERT INTO sync_change (entity_type, entity_id, entity_date, deleted, changed_at)
+SELECT 'STUDENT', id, NULL, 0, NOW(6) FROM students ORDER BY id;
+
+INSERT INTO sync_change (entity_type, entity_id, entity_date, deleted, changed_at)
+SELECT 'ATTENDANCE', class_id, date, 0, NOW(6)
+FROM (
+    SELECT DISTINCT class_id, date FROM attendance
+    UNION
+    SELECT class_id, date FROM attendance_bitmap
+) class_days
+ORDER BY date, class_id;
@@ -0,0 +1,17 @@
+-- Optimistic concurrency version per class/day attendance sheet.
+CREATE TABLE attendance_sheet (
+    class_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    version BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (class_id, date),
+    CONSTRAINT fk_attendance_sheet_class FOREIGN KEY (class_id) REFERENCES classes (id)
+) ENGINE = InnoDB;
+
+INSERT INTO attendance_sheet (class_id, date, version, updated_at)
+SELECT class_id, date, 1, NOW(6)
+FROM (
+    SELECT DISTINCT class_id, date FROM attendance
+    UNION
+    SELECT class_id, date FROM attendance_bitmap
+) class_days;
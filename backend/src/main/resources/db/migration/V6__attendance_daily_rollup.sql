@@ -0,0 +1,22 @@
+-- Present/total marks per class per day, maintained in the same transaction as
+-- every attendance write so the dashboard never scans raw attendance.
+CREATE TABLE attendance_daily_rollup (
+    class_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    present INT NOT NULL,
+    total INT NOT NULL,
+    PRIMARY KEY (class_id, date),
+    KEY idx_attendance_daily_rollup_date (date)
+) ENGINE = InnoDB;
+
+INSERT INTO attendance_daily_rollup (class_id, date, present, total)
+SELECT class_id, date, SUM(present), SUM(total)
+FROM (
+    SELECT class_id, date, SUM(is_present) AS present, COUNT(*) AS total
+    FROM attendance
+    GROUP BY class_id, date
+    UNION ALL
+    SELECT class_id, date, BIT_COUNT(present), BIT_COUNT(marked)
+    FROM attendance_bitmap
+) marks
+GROUP BY class_id, date;
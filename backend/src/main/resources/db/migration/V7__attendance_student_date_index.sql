@@ -0,0 +1,3 @@
+-- Date-range scans per student (AttendanceRepository.findStudentMarks, student
+-- trends). Range scans per class use idx_attendance_class_date from V2.
+CREATE INDEX idx_attendance_student_date ON attendance (student_id, date, is_present, class_id);
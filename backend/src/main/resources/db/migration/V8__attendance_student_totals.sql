@@ -0,0 +1,20 @@
+-- Running present/total marks per student per class, maintained in the same
+-- transaction as every attendance write. The stored percentage column is
+-- indexed so defaulter lookups are a range scan instead of a history scan.
+CREATE TABLE attendance_student_totals (
+    student_id BIGINT NOT NULL,
+    class_id BIGINT NOT NULL,
+    present INT NOT NULL,
+    total INT NOT NULL,
+    percentage DECIMAL(5, 2) AS (IF(total = 0, 0, present * 100 / total)) STORED,
+    PRIMARY KEY (student_id, class_id),
+    KEY idx_attendance_student_totals_class_percentage (class_id, percentage),
+    KEY idx_attendance_student_totals_percentage (percentage)
+) ENGINE = InnoDB;
+
+-- Bitmap deployments backfill through POST /api/dashboard/rollup/rebuild, since
+-- bit positions can only be resolved against class_roster in the application.
+INSERT INTO attendance_student_totals (student_id, class_id, present, total)
+SELECT student_id, class_id, SUM(is_present), COUNT(*)
+FROM attendance
+GROUP BY student_id, class_id;
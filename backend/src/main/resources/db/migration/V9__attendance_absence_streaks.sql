@@ -0,0 +1,39 @@
+-- Current and longest run of consecutive absent marks per student, ordered by
+-- date across the student's marks. Maintained in the same transaction as every
+-- attendance write; back-dated corrections recompute the student's row.
+CREATE TABLE attendance_absence_streaks (
+    student_id BIGINT NOT NULL,
+    current_streak INT NOT NULL,
+    longest_streak INT NOT NULL,
+    last_date DATE,
+    PRIMARY KEY (student_id),
+    KEY idx_attendance_absence_streaks_current (current_streak)
+) ENGINE = InnoDB;
+
+-- Absences that share a running count of earlier presents form one streak; the
+-- current streak is the one after the student's last present mark. Bitmap
+-- deployments backfill through POST /api/dashboard/rollup/rebuild.
+INSERT INTO attendance_absence_streaks (student_id, current_streak, longest_streak, last_date)
+WITH ordered AS (
+    SELECT student_id, is_present,
+           SUM(is_present) OVER (PARTITION BY student_id ORDER BY date ROWS UNBOUNDED PRECEDING) AS presents_before
+    FROM attendance
+),
+runs AS (
+    SELECT student_id, presents_before, COUNT(*) AS length
+    FROM ordered
+    WHERE is_present = 0
+    GROUP BY student_id, presents_before
+),
+summary AS (
+    SELECT student_id, SUM(is_present) AS presents, MAX(date) AS last_date
+    FROM attendance
+    GROUP BY student_id
+)
+SELECT s.student_id,
+       COALESCE(MAX(CASE WHEN r.presents_before = s.presents THEN r.length END), 0),
+       COALESCE(MAX(r.length), 0),
+       s.last_date
+FROM summary s
+LEFT JOIN runs r ON r.student_id = s.student_id
+GROUP BY s.student_id, s.last_date;
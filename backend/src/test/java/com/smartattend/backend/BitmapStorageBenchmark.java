@@ -0,0 +1,63 @@
+package com.smartattend.backend;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+class BitmapStorageBenchmark extends StorageModeBenchmark {
+    private static final int ROWS_PER_BATCH = 5_000;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedMariaDb.register(registry, "bitmap_storage_benchmark");
+        registry.add("smartattend.attendance.storage", () -> "bitmap");
+    }
+
+    @Override
+    protected String storage() {
+        return "Bitmap";
+    }
+
+    @Override
+    protected List<String> tables() {
+        return List.of("attendance_bitmap", "class_roster");
+    }
+
+    @Override
+    protected void insertMarks(Timestamp now) {
+        jdbcTemplate.update("""
+            INSERT INTO class_roster (class_id, position, student_id)
+            SELECT class_id, ROW_NUMBER() OVER (PARTITION BY class_id ORDER BY id) - 1, id FROM students
+            """);
+        List<Long> classIds = jdbcTemplate.queryForList("SELECT id FROM classes ORDER BY id", Long.class);
+        List<Object[]> rows = new ArrayList<>(ROWS_PER_BATCH);
+        for (Long classId : classIds) {
+            long[] students = jdbcTemplate.queryForList(
+                "SELECT student_id FROM class_roster WHERE class_id = ? ORDER BY position", Long.class, classId
+            ).stream().mapToLong(Long::longValue).toArray();
+            BitSet marked = new BitSet();
+            marked.set(0, students.length);
+            for (int n = 0; n < DAYS; n++) {
+                BitSet present = new BitSet();
+                for (int position = 0; position < students.length; position++) {
+                    present.set(position, present(students[position], n));
+                }
+                rows.add(new Object[] {classId, day(n), marked.toByteArray(), present.toByteArray(), now});
+                if (rows.size() == ROWS_PER_BATCH) {
+                    insert(rows);
+                }
+            }
+        }
+        insert(rows);
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO attendance_bitmap (class_id, date, marked, present, updated_at) VALUES (?, ?, ?, ?, ?)", rows
+        );
+        rows.clear();
+    }
+}
@@ -0,0 +1,54 @@
+package com.smartattend.backend;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import java.util.HashSet;
+import java.util.Set;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+/**
+ * MySQL-compatible InnoDB server for tests that need the Flyway schema, real row
+ * locks or the optimizer, none of which H2 reproduces. One server is started per
+ * JVM; each test class gets its own database so committed data does not leak.
+ */
+public final class EmbeddedMariaDb {
+    private static final Set<String> databases = new HashSet<>();
+    private static DB server;
+    private static int port;
+
+    private EmbeddedMariaDb() {
+    }
+
+    public static void register(DynamicPropertyRegistry registry, String database) {
+        registry.add("spring.datasource.url", () -> url(database));
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+        // Connector/J reports the server as MySQL 11, which the MySQL dialect cannot
+        // introspect; the MariaDB dialect reads @Lob columns back as a type mismatch,
+        // so the schema is left to Flyway alone.
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.MariaDBDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+    }
+
+    public static synchronized String url(String database) {
+        try {
+            if (server == null) {
+                DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+                config.setPort(0);
+                if ("root".equals(System.getProperty("user.name"))) {
+                    config.addArg("--user=root");
+                }
+                server = DB.newEmbeddedDB(config.build());
+                server.start();
+                port = config.getPort();
+            }
+            if (databases.add(database)) {
+                server.createDB(database);
+            }
+        } catch (ManagedProcessException ex) {
+            throw new IllegalStateException("Embedded MariaDB could not be started", ex);
+        }
+        return "jdbc:mysql://localhost:" + port + "/" + database + "?rewriteBatchedStatements=true";
+    }
+}
@@ -0,0 +1,173 @@
+package com.smartattend.backend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.smartattend.backend.attendance.AttendanceLogRepository;
+import com.smartattend.backend.attendance.AttendanceRepository;
+import com.smartattend.backend.students.StudentRepository;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Runs every repository finder against the migrated schema and EXPLAINs the SQL
+ * the server actually received, failing on a full table or full index scan.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HotQueryIndexTest {
+    private static final int CLASSES = 40;
+    private static final int STUDENTS_PER_CLASS = 30;
+    private static final int DAYS = 20;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 9, 2);
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedMariaDb.register(registry, "hot_query_index_test");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private AttendanceLogRepository attendanceLogRepository;
+
+    private long classId;
+    private long studentId;
+
+    @BeforeEach
+    void seed() {
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM classes", Long.class) == 0) {
+            insertHistory();
+        }
+        classId = jdbcTemplate.queryForObject("SELECT MIN(id) + 7 FROM classes", Long.class);
+        studentId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM students WHERE class_id = ?", Long.class, classId);
+        jdbcTemplate.execute("SET GLOBAL log_output = 'TABLE'");
+    }
+
+    @Test
+    void classDayFinderUsesAnIndex() {
+        assertIndexed(() -> attendanceRepository.findByClassEntityIdAndDate(classId, day(3)));
+    }
+
+    @Test
+    void dateFinderUsesAnIndex() {
+        assertIndexed(() -> attendanceRepository.findByDate(day(3)));
+    }
+
+    @Test
+    void classFinderUsesAnIndex() {
+        assertIndexed(() -> attendanceRepository.findByClassEntityId(classId));
+    }
+
+    @Test
+    void markFinderUsesAnIndex() {
+        assertIndexed(() -> attendanceRepository.findMarks(List.of(classId, classId + 1), List.of(day(3), day(4))));
+    }
+
+    @Test
+    void classRangeFindersUseAnIndex() {
+        assertIndexed(() -> attendanceRepository.findClassRange(classId, day(2), day(6)));
+        assertIndexed(() -> attendanceRepository.findClassMarks(classId, day(2), day(6)));
+    }
+
+    @Test
+    void studentRangeFinderUsesAnIndex() {
+        assertIndexed(() -> attendanceRepository.findStudentMarks(studentId, day(2), day(6)));
+        assertIndexed(() -> attendanceRepository.findStudentsMarks(List.of(studentId, studentId + 1), day(2), day(6)));
+    }
+
+    @Test
+    void classStudentTotalsUseAnIndex() {
+        assertIndexed(() -> attendanceRepository.findStudentTotals(classId, null, day(0), day(DAYS - 1)));
+        assertIndexed(() -> attendanceRepository.findStudentTotals(null, studentId, day(0), day(DAYS - 1)));
+    }
+
+    @Test
+    void studentFindersUseAnIndex() {
+        assertIndexed(() -> studentRepository.findByClassEntityId(classId));
+        assertIndexed(() -> studentRepository.findRollsByClassId(classId));
+    }
+
+    @Test
+    void auditFinderUsesAnIndex() {
+        assertIndexed(() -> attendanceLogRepository.findByClassIdAndDate(classId, day(3)));
+    }
+
+    private void assertIndexed(Runnable finder) {
+        jdbcTemplate.execute("TRUNCATE TABLE mysql.general_log");
+        jdbcTemplate.execute("SET GLOBAL general_log = 1");
+        try {
+            finder.run();
+        } finally {
+            jdbcTemplate.execute("SET GLOBAL general_log = 0");
+        }
+        List<String> statements = jdbcTemplate.queryForList(
+            "SELECT CONVERT(argument USING utf8mb4) FROM mysql.general_log"
+                + " WHERE command_type = 'Query' AND argument LIKE 'select%' ORDER BY event_time",
+            String.class
+        );
+        assertThat(statements).isNotEmpty();
+        for (String statement : statements) {
+            for (Map<String, Object> row : jdbcTemplate.queryForList("EXPLAIN " + statement)) {
+                assertThat(row.get("type"))
+                    .as("access to %s in %s", row.get("table"), statement)
+                    .isNotIn("ALL", "index");
+            }
+        }
+    }
+
+    private void insertHistory() {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> classes = new ArrayList<>();
+        for (int clazz = 0; clazz < CLASSES; clazz++) {
+            classes.add(new Object[] {"Class " + clazz, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO classes (name, created_at) VALUES (?, ?)", classes);
+        List<Object[]> students = new ArrayList<>();
+        for (Long id : jdbcTemplate.queryForList("SELECT id FROM classes", Long.class)) {
+            for (int roll = 1; roll <= STUDENTS_PER_CLASS; roll++) {
+                students.add(new Object[] {"R" + roll, "Student " + id + "-" + roll, id, now});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO students (roll_no, full_name, class_id, created_at) VALUES (?, ?, ?, ?)", students);
+        List<Object[]> days = new ArrayList<>();
+        for (int day = 0; day < DAYS; day++) {
+            days.add(new Object[] {Date.valueOf(day(day)), day, now});
+        }
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO attendance (student_id, class_id, date, is_present, created_at)
+            SELECT id, class_id, ?, (id + ?) % 4 <> 0, ? FROM students
+            """, days);
+        jdbcTemplate.update("""
+            INSERT INTO attendance_log (attendance_id, previous_status, new_status, changed_at)
+            SELECT id, is_present, NOT is_present, created_at FROM attendance WHERE id % 10 = 0
+            """);
+        jdbcTemplate.execute("ANALYZE TABLE classes, students, attendance, attendance_log");
+    }
+
+    private static LocalDate day(int offset) {
+        return FIRST_DAY.plusDays(offset);
+    }
+}
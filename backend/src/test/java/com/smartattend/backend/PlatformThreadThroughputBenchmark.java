@@ -0,0 +1,16 @@
+package com.smartattend.backend;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+class PlatformThreadThroughputBenchmark extends ThroughputBenchmark {
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedMariaDb.register(registry, "platform_thread_benchmark");
+    }
+
+    @Override
+    protected String threadModel() {
+        return "Platform";
+    }
+}
@@ -0,0 +1,46 @@
+package com.smartattend.backend;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+class RowStorageBenchmark extends StorageModeBenchmark {
+    private static final int DAYS_PER_STATEMENT = 20;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedMariaDb.register(registry, "row_storage_benchmark");
+        registry.add("smartattend.attendance.storage", () -> "rows");
+    }
+
+    @Override
+    protected String storage() {
+        return "Row";
+    }
+
+    @Override
+    protected List<String> tables() {
+        return List.of("attendance");
+    }
+
+    @Override
+    protected void insertMarks(Timestamp now) {
+        jdbcTemplate.execute("CREATE TABLE benchmark_days (n INT PRIMARY KEY, date DATE NOT NULL)");
+        List<Object[]> days = new ArrayList<>(DAYS);
+        for (int n = 0; n < DAYS; n++) {
+            days.add(new Object[] {n, day(n)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO benchmark_days (n, date) VALUES (?, ?)", days);
+        // Same pattern as present(studentId, day).
+        for (int first = 0; first < DAYS; first += DAYS_PER_STATEMENT) {
+            jdbcTemplate.update("""
+                INSERT INTO attendance (student_id, class_id, date, is_present, created_at)
+                SELECT s.id, s.class_id, d.date, (s.id * 7 + d.n) % 5 <> 0, ?
+                FROM students s JOIN benchmark_days d ON d.n BETWEEN ? AND ?
+                """, now, first, first + DAYS_PER_STATEMENT - 1);
+        }
+        jdbcTemplate.execute("DROP TABLE benchmark_days");
+    }
+}
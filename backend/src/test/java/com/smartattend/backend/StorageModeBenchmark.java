@@ -0,0 +1,139 @@
+package com.smartattend.backend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.smartattend.backend.dashboard.ReportsController;
+import com.smartattend.backend.dashboard.ReportsController.StudentReport;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Loads 10M marks (250 classes of 40 students over 1,000 days) and prints the
+ * on-disk size of the attendance tables and the student report latency.
+ * Subclasses pick the storage mode. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    properties = "smartattend.cache.student-reports.enabled=false"
+)
+abstract class StorageModeBenchmark {
+    protected static final int CLASSES = 250;
+    protected static final int STUDENTS_PER_CLASS = 40;
+    protected static final int DAYS = 1_000;
+    protected static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 6);
+    private static final int RUNS = 10;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReportsController reportsController;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void tenMillionMarks() {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> classes = new ArrayList<>();
+        for (int clazz = 0; clazz < CLASSES; clazz++) {
+            classes.add(new Object[] {"Class " + clazz, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO classes (name, created_at) VALUES (?, ?)", classes);
+        List<Object[]> students = new ArrayList<>();
+        for (Long id : jdbcTemplate.queryForList("SELECT id FROM classes", Long.class)) {
+            for (int roll = 1; roll <= STUDENTS_PER_CLASS; roll++) {
+                students.add(new Object[] {"R" + roll, "Student " + id + "-" + roll, id, now});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO students (roll_no, full_name, class_id, created_at) VALUES (?, ?, ?, ?)", students);
+
+        long started = System.nanoTime();
+        insertMarks(now);
+        long loadMillis = (System.nanoTime() - started) / 1_000_000;
+        List<String> tables = tables();
+        jdbcTemplate.execute("ANALYZE TABLE " + String.join(", ", tables));
+        long bytes = tables.stream()
+            .mapToLong(table -> jdbcTemplate.queryForObject(
+                "SELECT data_length + index_length FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?",
+                Long.class,
+                table
+            ))
+            .sum();
+
+        long classId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM classes", Long.class);
+        LocalDate lastDay = FIRST_DAY.plusDays(DAYS - 1);
+        List<StudentReport> classReport = studentReports(classId, FIRST_DAY, lastDay);
+        assertThat(classReport).hasSize(STUDENTS_PER_CLASS);
+        assertThat(classReport.get(0).totalDays()).isEqualTo(DAYS);
+
+        double classMillis = median(() -> studentReports(classId, FIRST_DAY, lastDay));
+        double schoolMillis = median(() -> studentReports(null, lastDay.minusDays(29), lastDay));
+
+        System.out.printf(
+            "%s storage, %,d marks: %.1f MB in %s, loaded in %d ms; class report over %d days %.1f ms,"
+                + " school report over 30 days %.1f ms%n",
+            storage(),
+            (long) CLASSES * STUDENTS_PER_CLASS * DAYS,
+            bytes / 1e6,
+            tables,
+            loadMillis,
+            DAYS,
+            classMillis,
+            schoolMillis
+        );
+    }
+
+    protected abstract String storage();
+
+    protected abstract List<String> tables();
+
+    protected abstract void insertMarks(Timestamp now);
+
+    protected static boolean present(long studentId, int day) {
+        return (studentId * 7 + day) % 5 != 0;
+    }
+
+    protected static Date day(int offset) {
+        return Date.valueOf(FIRST_DAY.plusDays(offset));
+    }
+
+    // Read-only transaction in place of the request's open session.
+    private List<StudentReport> studentReports(Long classId, LocalDate from, LocalDate to) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+        return readOnly.execute(status -> reportsController.studentReports(classId, null, from.toString(), to.toString(), request));
+    }
+
+    private static double median(Supplier<?> report) {
+        for (int run = 0; run < 3; run++) {
+            report.get();
+        }
+        long[] nanos = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long started = System.nanoTime();
+            report.get();
+            nanos[run] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+        return nanos[RUNS / 2] / 1e6;
+    }
+}
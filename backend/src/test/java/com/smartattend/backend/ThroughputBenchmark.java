@@ -0,0 +1,167 @@
+package com.smartattend.backend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Drives 2,000 concurrent clients at GET /api/attendance, which blocks on JDBC for
+ * every request, and prints throughput and latency. Measuring starts once every
+ * client has had a response. Subclasses pick the thread model; both use the same
+ * connection pool so that is the only difference.
+ * Run with {@code ./gradlew benchmark -PvirtualThreads}.
+ */
+@Tag("benchmark")
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.datasource.hikari.maximum-pool-size=50"
+)
+abstract class ThroughputBenchmark {
+    private static final int CLIENTS = 2_000;
+    private static final int CLASSES = 40;
+    private static final int STUDENTS_PER_CLASS = 30;
+    private static final LocalDate DAY = LocalDate.of(2024, 9, 2);
+    private static final Duration WARM_UP_LIMIT = Duration.ofMinutes(5);
+    private static final Duration MEASURE = Duration.ofSeconds(30);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long firstClassId;
+    private volatile long measureFrom;
+    private volatile long measureTo;
+
+    @BeforeEach
+    void seed() {
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM classes", Long.class) == 0) {
+            Timestamp now = Timestamp.from(Instant.now());
+            List<Object[]> classes = new ArrayList<>();
+            for (int clazz = 0; clazz < CLASSES; clazz++) {
+                classes.add(new Object[] {"Class " + clazz, now});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO classes (name, created_at) VALUES (?, ?)", classes);
+            List<Object[]> students = new ArrayList<>();
+            for (Long id : jdbcTemplate.queryForList("SELECT id FROM classes", Long.class)) {
+                for (int roll = 1; roll <= STUDENTS_PER_CLASS; roll++) {
+                    students.add(new Object[] {"R" + roll, "Student " + id + "-" + roll, id, now});
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO students (roll_no, full_name, class_id, created_at) VALUES (?, ?, ?, ?)", students);
+            jdbcTemplate.update("""
+                INSERT INTO attendance (student_id, class_id, date, is_present, created_at)
+                SELECT id, class_id, ?, id % 4 <> 0, ? FROM students
+                """, Date.valueOf(DAY), now);
+        }
+        firstClassId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM classes", Long.class);
+    }
+
+    @Test
+    void attendanceReadsAtTwoThousandClients() throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch warmedUp = new CountDownLatch(CLIENTS);
+        LongAdder errors = new LongAdder();
+        measureFrom = Long.MAX_VALUE;
+        measureTo = Long.MAX_VALUE;
+        try {
+            List<Future<long[]>> results = new ArrayList<>(CLIENTS);
+            for (int i = 0; i < CLIENTS; i++) {
+                results.add(clients.submit(() -> run(client, warmedUp, errors)));
+            }
+            assertThat(warmedUp.await(WARM_UP_LIMIT.toSeconds(), TimeUnit.SECONDS)).isTrue();
+            long now = System.nanoTime();
+            measureFrom = now;
+            measureTo = now + MEASURE.toNanos();
+
+            long[] latencies = new long[0];
+            for (Future<long[]> result : results) {
+                long[] clientLatencies = result.get();
+                int offset = latencies.length;
+                latencies = Arrays.copyOf(latencies, offset + clientLatencies.length);
+                System.arraycopy(clientLatencies, 0, latencies, offset, clientLatencies.length);
+            }
+            Arrays.sort(latencies);
+
+            System.out.printf(
+                "%s threads, %d clients: %.0f req/s, p50 %.1f ms, p99 %.1f ms, %d errors%n",
+                threadModel(),
+                CLIENTS,
+                latencies.length / (double) MEASURE.toSeconds(),
+                percentile(latencies, 0.50) / 1e6,
+                percentile(latencies, 0.99) / 1e6,
+                errors.sum()
+            );
+            assertThat(errors.sum()).isZero();
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    protected abstract String threadModel();
+
+    private long[] run(HttpClient client, CountDownLatch warmedUp, LongAdder errors) {
+        long[] latencies = new long[256];
+        int count = 0;
+        boolean warm = false;
+        long now = System.nanoTime();
+        while (now < measureTo) {
+            long classId = firstClassId + ThreadLocalRandom.current().nextInt(CLASSES);
+            HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/attendance?classId=" + classId + "&date=" + DAY)
+            ).build();
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status != 200) {
+                    errors.increment();
+                }
+            } catch (Exception ex) {
+                errors.increment();
+            }
+            long finished = System.nanoTime();
+            if (!warm) {
+                warm = true;
+                warmedUp.countDown();
+            }
+            if (finished >= measureFrom && finished <= measureTo) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = finished - now;
+            }
+            now = finished;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.floor(sorted.length * fraction))];
+    }
+}
@@ -0,0 +1,21 @@
+package com.smartattend.backend;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@ActiveProfiles("virtual-threads")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadThroughputBenchmark extends ThroughputBenchmark {
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedMariaDb.register(registry, "virtual_thread_benchmark");
+    }
+
+    @Override
+    protected String threadModel() {
+        return "Virtual";
+    }
+}
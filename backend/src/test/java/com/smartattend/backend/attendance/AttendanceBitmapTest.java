@@ -0,0 +1,55 @@
+package com.smartattend.backend.attendance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class AttendanceBitmapTest {
+    @Test
+    void transposeMovesBitColumnOfWordRowToBitRowOfWordColumn() {
+        long[] words = new long[Long.SIZE];
+        words[3] = 1L << 40;
+        words[63] = 1L;
+
+        AttendanceBitmap.Tally.transpose(words);
+
+        long[] expected = new long[Long.SIZE];
+        expected[40] = 1L << 3;
+        expected[0] = 1L << 63;
+        assertThat(words).containsExactly(expected);
+    }
+
+    @Test
+    void tallyMatchesCountingEachPosition() {
+        Random random = new Random(42);
+        int positions = 150;
+        long[] present = new long[positions];
+        long[] total = new long[positions];
+        AttendanceBitmap.Tally tally = new AttendanceBitmap.Tally(positions);
+
+        // Not a multiple of 64, and some rosters shorter or longer than the tally.
+        for (int day = 0; day < 201; day++) {
+            int width = 40 + random.nextInt(150);
+            BitSet markedBits = new BitSet();
+            BitSet presentBits = new BitSet();
+            for (int position = 0; position < width; position++) {
+                boolean isMarked = random.nextInt(5) != 0;
+                boolean isPresent = random.nextBoolean();
+                markedBits.set(position, isMarked);
+                // A present bit without a marked bit does not count.
+                presentBits.set(position, isPresent);
+                if (isMarked && position < positions) {
+                    total[position]++;
+                    present[position] += isPresent ? 1 : 0;
+                }
+            }
+            tally.add(AttendanceBitmap.decode(markedBits.toByteArray(), presentBits.toByteArray()));
+        }
+
+        for (int position = 0; position < positions; position++) {
+            assertThat(tally.count(position)).as("position %d", position).isEqualTo(new MarkCount(present[position], total[position]));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.smartattend.backend.attendance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattend.backend.attendance.AttendanceController.AttendanceItem;
+import com.smartattend.backend.attendance.AttendanceController.AttendanceResponse;
+import com.smartattend.backend.attendance.AttendanceWriteService.ClassDayRoster;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class AttendanceIngestQueueTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 9, 2);
+    private static final long CLASS_ID = 7L;
+    private static final long OTHER_CLASS_ID = 8L;
+    private static final long STUDENT_ID = 41L;
+
+    private final AttendanceIngestEntryRepository entryRepository = mock(AttendanceIngestEntryRepository.class);
+    private final AttendanceWriteService writeService = mock(AttendanceWriteService.class);
+    private final List<AttendanceIngestEntry> table = new ArrayList<>();
+    private final List<List<ClassDayRoster>> writes = new ArrayList<>();
+    private boolean absentRosterFails;
+    private long nextId = 1;
+
+    private AttendanceIngestQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new AttendanceIngestQueue(
+            entryRepository,
+            writeService,
+            mock(PlatformTransactionManager.class),
+            new ObjectMapper(),
+            mock(JdbcTemplate.class),
+            500,
+            5
+        );
+        when(writeService.previewClassDay(anyLong(), any(), anyList())).thenAnswer(invocation -> {
+            List<AttendanceItem> items = invocation.getArgument(2);
+            return List.of(new AttendanceResponse(
+                null, STUDENT_ID, "Asha", invocation.getArgument(0), "10-A", DAY.toString(), items.get(0).present()
+            ));
+        });
+        when(entryRepository.save(any())).thenAnswer(invocation -> {
+            AttendanceIngestEntry entry = invocation.getArgument(0);
+            ReflectionTestUtils.setField(entry, "id", nextId++);
+            table.add(entry);
+            return entry;
+        });
+        when(entryRepository.findAllByOrderByIdAsc(any(Pageable.class))).thenAnswer(invocation -> List.copyOf(table));
+        doAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            table.removeIf(entry -> ids.contains(entry.getId()));
+            return null;
+        }).when(entryRepository).deleteAllByIdInBatch(any());
+        doAnswer(invocation -> {
+            List<ClassDayRoster> rosters = invocation.getArgument(0);
+            boolean absent = rosters.stream().anyMatch(roster -> roster.classId() == CLASS_ID
+                && Boolean.FALSE.equals(roster.marks().get(STUDENT_ID)));
+            if (absentRosterFails && absent) {
+                throw new TransientDataAccessResourceException("Lock wait timeout exceeded");
+            }
+            writes.add(rosters);
+            return null;
+        }).when(writeService).writeRosters(anyList());
+    }
+
+    @Test
+    void newerSubmissionWaitsBehindAnOlderOneThatFailed() {
+        enqueue(CLASS_ID, false);
+        enqueue(CLASS_ID, true);
+        enqueue(OTHER_CLASS_ID, true);
+        absentRosterFails = true;
+
+        queue.drain();
+
+        assertThat(writes).singleElement()
+            .satisfies(rosters -> assertThat(rosters).extracting(ClassDayRoster::classId).containsExactly(OTHER_CLASS_ID));
+        assertThat(table).extracting(AttendanceIngestEntry::getId).containsExactly(1L, 2L);
+        assertThat(queue.findPending(CLASS_ID, DAY)).get()
+            .satisfies(responses -> assertThat(responses.get(0).present()).isTrue());
+
+        absentRosterFails = false;
+        queue.drain();
+
+        assertThat(writes).hasSize(2);
+        assertThat(writes.get(1)).extracting(roster -> roster.marks().get(STUDENT_ID)).containsExactly(false, true);
+        assertThat(table).isEmpty();
+        assertThat(queue.findPending(CLASS_ID, DAY)).isEmpty();
+    }
+
+    @Test
+    void failureDoesNotHoldBackOtherClassDays() {
+        enqueue(CLASS_ID, false);
+        enqueue(OTHER_CLASS_ID, false);
+        absentRosterFails = true;
+
+        queue.drain();
+
+        assertThat(writes).flatExtracting(rosters -> rosters).extracting(ClassDayRoster::classId)
+            .containsExactly(OTHER_CLASS_ID);
+        assertThat(queue.findPending(OTHER_CLASS_ID, DAY)).isEmpty();
+        assertThat(queue.findPending(CLASS_ID, DAY)).isPresent();
+    }
+
+    private void enqueue(long classId, boolean present) {
+        queue.enqueue(classId, DAY, List.of(new AttendanceItem(STUDENT_ID, present, null)), null);
+    }
+}
@@ -0,0 +1,121 @@
+package com.smartattend.backend.attendance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.smartattend.backend.EmbeddedMariaDb;
+import com.smartattend.backend.attendance.AttendanceController.AttendanceItem;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Counts the statements the server receives for one roster submission, so a
+ * per-student query or write sneaking back into the path fails the build.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class AttendanceRosterStatementCountTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 9, 2);
+    private static final int MAX_STATEMENTS = 13;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedMariaDb.register(registry, "attendance_roster_statement_test");
+    }
+
+    @Autowired
+    private AttendanceWriteService writeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("SET GLOBAL log_output = 'TABLE'");
+    }
+
+    @Test
+    void newRosterOfOneHundredTwentyTakesAFixedNumberOfStatements() {
+        List<String> small = statementsFor(roster(insertClass(12), true));
+        List<String> large = statementsFor(roster(insertClass(120), true));
+
+        assertThat(large).as("statements for 120 students: %s", large)
+            .hasSize(small.size())
+            .hasSizeLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    @Test
+    void correctedRosterOfOneHundredTwentyTakesAFixedNumberOfStatements() {
+        List<String> small = statementsFor(corrected(insertClass(12)));
+        long classId = insertClass(120);
+        List<String> large = statementsFor(corrected(classId));
+
+        assertThat(large).as("statements for 120 students: %s", large)
+            .hasSize(small.size())
+            .hasSizeLessThanOrEqualTo(MAX_STATEMENTS);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM attendance WHERE class_id = ? AND date = ? AND NOT is_present", Long.class, classId, DAY
+        )).isEqualTo(120);
+    }
+
+    private List<String> statementsFor(Roster roster) {
+        jdbcTemplate.execute("TRUNCATE TABLE mysql.general_log");
+        jdbcTemplate.execute("SET GLOBAL general_log = 1");
+        try {
+            writeService.replaceClassDay(roster.classId(), DAY, roster.items(), null, null);
+        } finally {
+            jdbcTemplate.execute("SET GLOBAL general_log = 0");
+        }
+        // Only the connection that wrote the roster; scheduled jobs may run meanwhile.
+        // Statements are cut short so a failure lists them readably.
+        return jdbcTemplate.queryForList("""
+            SELECT LEFT(CONVERT(argument USING utf8mb4), 60) FROM mysql.general_log
+            WHERE command_type = 'Query'
+              AND thread_id = (
+                SELECT MIN(thread_id) FROM mysql.general_log
+                WHERE argument LIKE 'insert into attendance (%'
+              )
+              AND argument NOT LIKE 'select @@%'
+              AND (argument LIKE 'select%' OR argument LIKE 'insert%'
+                OR argument LIKE 'update%' OR argument LIKE 'delete%')
+            ORDER BY event_time
+            """, String.class);
+    }
+
+    private long insertClass(int students) {
+        Timestamp now = Timestamp.from(Instant.now());
+        String className = "Roster " + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO classes (name, created_at) VALUES (?, ?)", className, now);
+        long classId = jdbcTemplate.queryForObject("SELECT id FROM classes WHERE name = ?", Long.class, className);
+        List<Object[]> rows = new ArrayList<>(students);
+        for (int roll = 1; roll <= students; roll++) {
+            rows.add(new Object[] {String.valueOf(roll), "Student " + roll, classId, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO students (roll_no, full_name, class_id, created_at) VALUES (?, ?, ?, ?)", rows);
+        return classId;
+    }
+
+    private Roster corrected(long classId) {
+        Roster roster = roster(classId, true);
+        writeService.replaceClassDay(roster.classId(), DAY, roster.items(), null, null);
+        return roster(classId, false);
+    }
+
+    private Roster roster(long classId, boolean present) {
+        List<AttendanceItem> items = jdbcTemplate.queryForList("SELECT id FROM students WHERE class_id = ?", Long.class, classId)
+            .stream()
+            .map(studentId -> new AttendanceItem(studentId, present, null))
+            .toList();
+        return new Roster(classId, items);
+    }
+
+    private record Roster(long classId, List<AttendanceItem> items) {}
+}
@@ -0,0 +1,170 @@
+package com.smartattend.backend.attendance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.smartattend.backend.EmbeddedMariaDb;
+import com.smartattend.backend.attendance.AttendanceConflictException.StudentConflict;
+import com.smartattend.backend.attendance.AttendanceController.AttendanceItem;
+import com.smartattend.backend.attendance.AttendanceWriteService.SheetResult;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Two teachers save the same class/day from the same version. The first write is
+ * held open until the second is waiting on it, so the second always has to rebase.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class AttendanceWriteServiceConcurrencyTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 9, 2);
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedMariaDb.register(registry, "attendance_write_concurrency_test");
+    }
+
+    @Autowired
+    private AttendanceWriteService writeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private long classId;
+    private long asha;
+    private long ravi;
+    private long version;
+
+    @BeforeEach
+    void setUp() {
+        Timestamp now = Timestamp.from(Instant.now());
+        String className = "10-A " + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO classes (name, created_at) VALUES (?, ?)", className, now);
+        classId = jdbcTemplate.queryForObject("SELECT id FROM classes WHERE name = ?", Long.class, className);
+        asha = insertStudent("1", "Asha", now);
+        ravi = insertStudent("2", "Ravi", now);
+        version = writeService.replaceClassDay(
+            classId, DAY, List.of(new AttendanceItem(asha, true, null), new AttendanceItem(ravi, true, null)), null, null
+        ).version();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void disjointEditsFromTheSameVersionBothLand() throws Exception {
+        SheetResult second = whileFirstWriteIsOpen(
+            () -> writeService.applyChanges(classId, DAY, List.of(new AttendanceItem(asha, false, true)), null, version),
+            () -> writeService.applyChanges(classId, DAY, List.of(new AttendanceItem(ravi, false, true)), null, version)
+        );
+
+        assertThat(second.version()).isEqualTo(version + 2);
+        assertThat(storedMarks()).containsEntry(asha, false).containsEntry(ravi, false).hasSize(2);
+        assertThat(writeService.currentVersion(classId, DAY)).isEqualTo(version + 2);
+    }
+
+    @Test
+    void overlappingEditFromTheSameVersionIsRejected() {
+        assertThatThrownBy(() -> whileFirstWriteIsOpen(
+            () -> writeService.applyChanges(classId, DAY, List.of(new AttendanceItem(asha, false, true)), null, version),
+            () -> writeService.replaceClassDay(
+                classId, DAY, List.of(new AttendanceItem(asha, true, true), new AttendanceItem(ravi, false, true)),
+                null, version
+            )
+        ))
+            .hasCauseInstanceOf(AttendanceConflictException.class)
+            .cause()
+            .satisfies(cause -> {
+                AttendanceConflictException conflict = (AttendanceConflictException) cause;
+                assertThat(conflict.getCurrentVersion()).isEqualTo(version + 1);
+                assertThat(conflict.getConflicts()).containsExactly(new StudentConflict(asha, "Asha", false, true));
+            });
+
+        assertThat(storedMarks()).containsEntry(asha, false).containsEntry(ravi, true).hasSize(2);
+        assertThat(writeService.currentVersion(classId, DAY)).isEqualTo(version + 1);
+    }
+
+    private SheetResult whileFirstWriteIsOpen(Supplier<SheetResult> first, Supplier<SheetResult> second) throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        CountDownLatch secondWaiting = new CountDownLatch(1);
+        CompletableFuture<SheetResult> firstResult = CompletableFuture.supplyAsync(() -> transaction.execute(status -> {
+            SheetResult result = first.get();
+            firstWritten.countDown();
+            await(secondWaiting);
+            return result;
+        }), executor);
+        assertThat(firstWritten.await(30, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<SheetResult> secondResult = CompletableFuture.supplyAsync(second, executor);
+        while (!secondResult.isDone() && !sheetUpdateWaiting()) {
+            Thread.sleep(10);
+        }
+        secondWaiting.countDown();
+
+        assertThat(firstResult.get(30, TimeUnit.SECONDS).version()).isEqualTo(version + 1);
+        return secondResult.get(30, TimeUnit.SECONDS);
+    }
+
+    private boolean sheetUpdateWaiting() {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.processlist WHERE info LIKE 'UPDATE attendance_sheet %'", Long.class
+        ) > 0;
+    }
+
+    private Map<Long, Boolean> storedMarks() {
+        Map<Long, Boolean> marks = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT student_id, is_present FROM attendance WHERE class_id = ? AND date = ?",
+            rs -> {
+                marks.put(rs.getLong("student_id"), rs.getBoolean("is_present"));
+            },
+            classId,
+            Date.valueOf(DAY)
+        );
+        return marks;
+    }
+
+    private long insertStudent(String rollNo, String name, Timestamp now) {
+        jdbcTemplate.update(
+            "INSERT INTO students (roll_no, full_name, class_id, created_at) VALUES (?, ?, ?, ?)", rollNo, name, classId, now
+        );
+        return jdbcTemplate.queryForObject(
+            "SELECT id FROM students WHERE class_id = ? AND roll_no = ?", Long.class, classId, rollNo
+        );
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.smartattend.backend.dashboard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattend.backend.attendance.AttendanceBitmapStore;
+import com.smartattend.backend.attendance.AttendanceRecord;
+import com.smartattend.backend.attendance.AttendanceRepository;
+import com.smartattend.backend.classes.ClassEntity;
+import com.smartattend.backend.classes.ClassRepository;
+import com.smartattend.backend.dashboard.AttendanceRegister.Register;
+import com.smartattend.backend.students.Student;
+import com.smartattend.backend.students.StudentRepository;
+import jakarta.persistence.EntityManager;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+@DataJpaTest(properties = {
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class AttendanceRegisterTest {
+    private static final YearMonth MONTH = YearMonth.of(2024, 10);
+    private static final int STUDENTS = 60;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ClassRepository classRepository;
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    private AttendanceRegister register;
+    private ClassEntity classEntity;
+    private List<Student> students;
+    private List<LocalDate> schoolDays;
+
+    @BeforeEach
+    void setUp() {
+        register = new AttendanceRegister(classRepository, studentRepository, attendanceRepository, mock(AttendanceBitmapStore.class));
+
+        classEntity = persist(new ClassEntity("10-A", null, null));
+        students = new ArrayList<>();
+        for (int roll = 1; roll <= STUDENTS; roll++) {
+            students.add(persist(new Student(String.format("%02d", roll), "Student " + roll, null, null, classEntity, null)));
+        }
+        schoolDays = new ArrayList<>();
+        for (LocalDate day = MONTH.atDay(1); !day.isAfter(MONTH.atEndOfMonth()); day = day.plusDays(1)) {
+            if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                schoolDays.add(day);
+            }
+        }
+        for (int row = 0; row < STUDENTS; row++) {
+            for (int column = 0; column < schoolDays.size(); column++) {
+                // The last student missed the register on the first school day.
+                if (row == STUDENTS - 1 && column == 0) {
+                    continue;
+                }
+                persist(new AttendanceRecord(students.get(row), classEntity, schoolDays.get(column), present(row, column), null));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void gridHasOnePresentBitPerStudentAndSchoolDay() {
+        Register result = register.build(classEntity.getId(), MONTH);
+
+        assertThat(result.studentIds()).containsExactlyElementsOf(students.stream().map(Student::getId).toList());
+        assertThat(Integer.bitCount(result.schoolDays())).isEqualTo(schoolDays.size());
+        for (LocalDate day : schoolDays) {
+            assertThat(result.schoolDays() & 1 << (day.getDayOfMonth() - 1)).isNotZero();
+        }
+        assertThat(result.rowBytes()).isEqualTo((schoolDays.size() + 7) / 8);
+        byte[] present = Base64.getDecoder().decode(result.present());
+        assertThat(present).hasSize(STUDENTS * result.rowBytes());
+        for (int row = 0; row < STUDENTS; row++) {
+            for (int column = 0; column < schoolDays.size(); column++) {
+                boolean bit = (present[row * result.rowBytes() + column / 8] & 1 << (column % 8)) != 0;
+                boolean expected = (row != STUDENTS - 1 || column != 0) && present(row, column);
+                assertThat(bit).as("row %d column %d", row, column).isEqualTo(expected);
+            }
+        }
+        assertThat(result.unmarked()).containsExactly(new int[] {STUDENTS - 1, schoolDays.get(0).getDayOfMonth()});
+    }
+
+    @Test
+    void sixtyStudentMonthStaysUnderOneKilobyteOfJson() throws Exception {
+        Register result = register.build(classEntity.getId(), MONTH);
+
+        // 23 school days: 3 bytes a row, 180 bytes of cells and 240 base64 characters.
+        assertThat(result.present()).hasSize(240);
+        assertThat(new ObjectMapper().writeValueAsBytes(result).length).isLessThan(1_024);
+    }
+
+    private static boolean present(int row, int column) {
+        return (row * 7 + column) % 5 != 0;
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
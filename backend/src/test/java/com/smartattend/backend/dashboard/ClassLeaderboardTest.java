@@ -0,0 +1,93 @@
+package com.smartattend.backend.dashboard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.smartattend.backend.attendance.AttendanceChangedEvent;
+import com.smartattend.backend.attendance.MarkChange;
+import com.smartattend.backend.attendance.MarkCount;
+import com.smartattend.backend.dashboard.ClassLeaderboard.Standing;
+import com.smartattend.backend.dashboard.ClassLeaderboard.Window;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+class ClassLeaderboardTest {
+    private static final long CLASS_ID = 7L;
+
+    private final AttendanceRollup attendanceRollup = mock(AttendanceRollup.class);
+    private ClassLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new ClassLeaderboard(attendanceRollup, new CommitGate(mock(PlatformTransactionManager.class)), "");
+        when(attendanceRollup.countByClass(any(), any())).thenReturn(Map.of(CLASS_ID, new MarkCount(3, 4)));
+        leaderboard.reseed();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void changeCommittedBeforeTheReseedQueryIsNotCountedTwice() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        leaderboard.onAttendanceChanged(absentToday());
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+
+        // The rollup the reseed reads already holds the committing change.
+        when(attendanceRollup.countByClass(any(), any())).thenReturn(Map.of(CLASS_ID, new MarkCount(3, 5)));
+        CompletableFuture<Void> reseed = CompletableFuture.runAsync(leaderboard::reseed);
+        assertWaiting(reseed);
+
+        commit();
+        reseed.get(10, TimeUnit.SECONDS);
+
+        assertThat(leaderboard.top(Window.TODAY, 5)).containsExactly(new Standing(CLASS_ID, 3, 5, 60));
+    }
+
+    @Test
+    void changeCommittedAfterTheReseedIsApplied() {
+        TransactionSynchronizationManager.initSynchronization();
+        leaderboard.onAttendanceChanged(absentToday());
+        leaderboard.reseed();
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        commit();
+
+        assertThat(leaderboard.top(Window.TERM, 5)).containsExactly(new Standing(CLASS_ID, 3, 5, 60));
+    }
+
+    private void assertWaiting(CompletableFuture<Void> reseed) throws Exception {
+        try {
+            reseed.get(200, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException expected) {
+            return;
+        }
+        throw new AssertionError("Reseed did not wait for the committing transaction");
+    }
+
+    private static void commit() {
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static AttendanceChangedEvent absentToday() {
+        return new AttendanceChangedEvent(List.of(new MarkChange(41L, CLASS_ID, LocalDate.now(), null, false)));
+    }
+}
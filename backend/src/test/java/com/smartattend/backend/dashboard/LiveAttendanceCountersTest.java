@@ -0,0 +1,88 @@
+package com.smartattend.backend.dashboard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.smartattend.backend.attendance.AttendanceChangedEvent;
+import com.smartattend.backend.attendance.MarkChange;
+import com.smartattend.backend.attendance.MarkCount;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+class LiveAttendanceCountersTest {
+    private static final long CLASS_ID = 7L;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final CountDownLatch querying = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean holdQuery;
+    private LiveAttendanceCounters counters;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong("class_id")).thenReturn(CLASS_ID);
+        when(row.getLong("present")).thenReturn(3L);
+        when(row.getLong("total")).thenReturn(4L);
+        doAnswer(invocation -> {
+            if (holdQuery) {
+                querying.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+
+        counters = new LiveAttendanceCounters(jdbcTemplate, new CommitGate(mock(PlatformTransactionManager.class)));
+        counters.reseed();
+    }
+
+    @Test
+    void changeCommittingWhileTheRollupIsReadLandsOnTheNewDay() throws Exception {
+        holdQuery = true;
+        CompletableFuture<Void> reseed = CompletableFuture.runAsync(counters::reseed);
+        assertThat(querying.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // The rollup being read does not hold this change: it has not committed yet.
+        CountDownLatch published = new CountDownLatch(1);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                counters.onAttendanceChanged(new AttendanceChangedEvent(
+                    List.of(new MarkChange(41L, CLASS_ID, LocalDate.now(), null, false))
+                ));
+                published.countDown();
+                TransactionSynchronizationUtils.triggerBeforeCommit(false);
+                TransactionSynchronizationUtils.triggerAfterCommit();
+                TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        });
+        assertThat(published.await(10, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(200);
+        assertThat(writer).isNotDone();
+
+        release.countDown();
+        reseed.get(10, TimeUnit.SECONDS);
+        writer.get(10, TimeUnit.SECONDS);
+
+        assertThat(counters.today()).isEqualTo(new MarkCount(3, 5));
+    }
+}
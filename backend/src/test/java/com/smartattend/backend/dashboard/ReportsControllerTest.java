@@ -0,0 +1,147 @@
+package com.smartattend.backend.dashboard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import com.smartattend.backend.analytics.ColumnarAttendanceStore;
+import com.smartattend.backend.attendance.AttendanceBitmapStore;
+import com.smartattend.backend.attendance.AttendanceRecord;
+import com.smartattend.backend.attendance.AttendanceRepository;
+import com.smartattend.backend.cache.DataVersions;
+import com.smartattend.backend.cache.ResponseCache;
+import com.smartattend.backend.classes.ClassEntity;
+import com.smartattend.backend.classes.ClassRepository;
+import com.smartattend.backend.dashboard.ReportsController.StudentReport;
+import com.smartattend.backend.students.Student;
+import com.smartattend.backend.students.StudentRepository;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+@DataJpaTest(properties = {
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ReportsControllerTest {
+    private static final LocalDate MONDAY = LocalDate.of(2024, 9, 2);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ClassRepository classRepository;
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    private ReportsController controller;
+    private Statistics statistics;
+    private ClassEntity tenA;
+    private Student asha;
+    private Student ravi;
+    private Student meera;
+
+    @BeforeEach
+    void setUp() {
+        controller = new ReportsController(
+            studentRepository,
+            classRepository,
+            attendanceRepository,
+            mock(AttendanceBitmapStore.class),
+            new ResponseCache(new NoOpCacheManager(), new MockEnvironment()),
+            mock(AttendanceTrends.class),
+            mock(ReportExporter.class),
+            new StaticListableBeanFactory().getBeanProvider(ColumnarAttendanceStore.class),
+            mock(StudentAttendanceTotals.class),
+            mock(AbsenceStreaks.class),
+            mock(AttendanceRegister.class),
+            new DataVersions(false)
+        );
+
+        tenA = persist(new ClassEntity("10-A", null, null));
+        ClassEntity tenB = persist(new ClassEntity("10-B", null, null));
+        asha = persist(new Student("1", "Asha", null, null, tenA, null));
+        ravi = persist(new Student("2", "Ravi", null, null, tenA, null));
+        meera = persist(new Student("1", "Meera", null, null, tenB, null));
+        for (int day = 0; day < 4; day++) {
+            persist(new AttendanceRecord(asha, tenA, MONDAY.plusDays(day), day != 2, null));
+            persist(new AttendanceRecord(meera, tenB, MONDAY.plusDays(day), false, null));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void classReportRunsOneStatement() {
+        List<StudentReport> reports = controller.studentReports(tenA.getId(), null, null, null, webRequest());
+
+        assertThat(reports).containsExactly(
+            new StudentReport(asha.getId(), "1", "Asha", "10-A", 4, 3, 1, 75),
+            new StudentReport(ravi.getId(), "2", "Ravi", "10-A", 0, 0, 0, 0)
+        );
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void schoolReportRunsOneStatement() {
+        List<StudentReport> reports = controller.studentReports(null, null, null, null, webRequest());
+
+        assertThat(reports).extracting(StudentReport::studentId)
+            .containsExactly(asha.getId(), ravi.getId(), meera.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void dateRangeIsAppliedInTheSameStatement() {
+        List<StudentReport> reports = controller.studentReports(
+            null, asha.getId(), MONDAY.plusDays(1).toString(), MONDAY.plusDays(2).toString(), webRequest()
+        );
+
+        assertThat(reports).containsExactly(new StudentReport(asha.getId(), "1", "Asha", "10-A", 2, 1, 1, 50));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownTrendGranularityIsRejected() {
+        assertThatThrownBy(() -> controller.trend("school", null, "hour", null, null, webRequest()))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void unknownTrendScopeIsRejected() {
+        assertThatThrownBy(() -> controller.trend("district", null, "day", null, null, webRequest()))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest());
+    }
+}